@@ -0,0 +1,64 @@
+// src/jmh/java/com/investingapp/backend/security/jwt/JwtValidationBenchmark.java
+package com.investingapp.backend.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold vs memoized JWT validation, using the same JwtParser setup and VerifiedTokenCache as JwtUtils.
+ * Run with: ./gradlew jmh -PjmhIncludes=JwtValidationBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtValidationBenchmark {
+
+    private JwtParser jwtParser;
+    private VerifiedTokenCache verifiedTokenCache;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        SecretKey key = Keys.hmacShaKeyFor("benchmark-secret-that-is-at-least-32-bytes-long".getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parserBuilder().setSigningKey(key).build();
+        verifiedTokenCache = new VerifiedTokenCache(10_000, 300);
+        token = Jwts.builder()
+                .setSubject("benchmark@example.com")
+                .claim(JwtUtils.CLAIM_USER_ID, 42L)
+                .claim(JwtUtils.CLAIM_ROLES, List.of("ROLE_USER"))
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+        verifiedTokenCache.verify(token, this::parse); // Prime, as after a client's first request
+    }
+
+    // Every request pays for base64 decoding, HMAC-SHA256 and JSON parsing
+    @Benchmark
+    public Claims cold() {
+        return parse(token);
+    }
+
+    // Repeat request: one SHA-256 of the token plus a cache lookup
+    @Benchmark
+    public Claims memoized() {
+        return verifiedTokenCache.verify(token, this::parse);
+    }
+
+    private Claims parse(String jwt) {
+        return jwtParser.parseClaimsJws(jwt).getBody();
+    }
+}
@@ -0,0 +1,110 @@
+// src/jmh/java/com/investingapp/backend/service/ChallengeStoreBenchmark.java
+package com.investingapp.backend.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * put and take latency for each ChallengeStore. "jdbc" runs against in-memory H2 in MySQL mode, so it measures the
+ * store's own statements and pooling; against MySQL add one network round trip per put and two per take.
+ * Payload is the size of an encoded registration. "put" re-puts one key per thread (the upsert path
+ * of a repeated /register/start); "putAndTake" is a full start/finish with a fresh key; "take" consumes keys put
+ * before the iteration started, so it times the /finish side alone. Subtracting put from putAndTake does not give
+ * take: put overwrites an existing row, which costs H2 more than putAndTake's insert.
+ *
+ * Last run, 4 threads, medians (take is a mean of 1000 takes): memory put 0.13 µs, putAndTake 0.30 µs, take 0.35 µs;
+ * jdbc put 89 µs, putAndTake 45 µs, take 37 µs. The sampled means are much higher (memory 2.6 / 7.6 µs, jdbc
+ * 548 / 266 µs) because they include rare pauses of 20-40 ms.
+ * Run with: ./gradlew jmh -PjmhIncludes=ChallengeStoreBenchmark
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ChallengeStoreBenchmark {
+
+    @Param({"memory", "jdbc"})
+    public String store;
+
+    private ChallengeStore challengeStore;
+    private HikariDataSource dataSource;
+    private final AtomicLong keys = new AtomicLong();
+    private final byte[] payload = new byte[51]; // Encoded registration: 32-byte challenge, 16-byte user handle
+
+    @State(Scope.Thread)
+    public static class ThreadKey {
+        final String key = "register:bench-" + Thread.currentThread().getId() + "@example.com";
+    }
+
+    // A take can't be repeated on the same key, so each thread gets TAKES_PER_ITERATION fresh keys per iteration
+    @State(Scope.Thread)
+    public static class PendingKeys {
+        final String[] keys = new String[TAKES_PER_ITERATION];
+        int next;
+
+        @Setup(Level.Iteration)
+        public void fill(ChallengeStoreBenchmark benchmark) {
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = "login:" + benchmark.keys.incrementAndGet();
+                benchmark.challengeStore.put(keys[i], benchmark.payload);
+            }
+            next = 0;
+        }
+    }
+
+    // One single-shot iteration runs this many takes, so its ms score is the mean µs per take
+    static final int TAKES_PER_ITERATION = 1000;
+
+    @Setup
+    public void setUp() {
+        if ("memory".equals(store)) {
+            challengeStore = new InMemoryChallengeStore(300, 384, new SimpleMeterRegistry());
+            return;
+        }
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:challenges;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        dataSource.setMaximumPoolSize(8);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS webauthn_challenges (challenge_key VARCHAR(320) PRIMARY KEY, " +
+                "payload VARBINARY(512) NOT NULL, nonce BIGINT NOT NULL, expire_date TIMESTAMP(6) NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_webauthn_challenges_expire_date ON webauthn_challenges (expire_date)");
+        challengeStore = new JdbcChallengeStore(jdbcTemplate, 300);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
+    @Benchmark
+    public void put(ThreadKey threadKey) {
+        challengeStore.put(threadKey.key, payload);
+    }
+
+    @Benchmark
+    public Optional<byte[]> putAndTake() {
+        String key = "login:" + keys.incrementAndGet();
+        challengeStore.put(key, payload);
+        return challengeStore.take(key);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 200, batchSize = TAKES_PER_ITERATION)
+    @Measurement(iterations = 200, batchSize = TAKES_PER_ITERATION)
+    public Optional<byte[]> take(PendingKeys pendingKeys) {
+        return challengeStore.take(pendingKeys.keys[pendingKeys.next++]);
+    }
+}
@@ -0,0 +1,172 @@
+// src/main/java/com/investingapp/backend/config/AdaptiveConcurrencyLimiter.java
+package com.investingapp.backend.config;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gradient-style adaptive concurrency limit for one Plaid endpoint.
+ *
+ * The limit grows while observed latency stays close to the long-run average and shrinks as soon as
+ * latency climbs (queueing upstream) or Plaid signals overload (rate limits, 5xx, timeouts). Callers over the
+ * limit wait in a bounded queue; once that queue is full, or the wait times out, they are rejected. Blocking
+ * callers wait on the limiter itself. Asynchronous callers ({@link #acquireAsync()}) wait as futures, and a
+ * released slot is handed straight to the oldest of them, so no thread is parked for them.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    // How fast the long-run RTT and the limit itself track new samples
+    private static final double LONG_RTT_SMOOTHING = 0.05;
+    private static final double LIMIT_SMOOTHING = 0.2;
+    // Multiplicative decrease applied when a call is dropped
+    private static final double DROP_BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueued;
+    private final long queueTimeoutNanos;
+
+    private double limit;
+    private double longRttNanos;
+    private int inFlight;
+    private int queued;
+    private final ArrayDeque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, int maxQueued, long queueTimeoutMs) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueued = maxQueued;
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMs);
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /** Blocks until a slot is free. Returns false if the queue is full or the wait timed out. */
+    public synchronized boolean acquire() throws InterruptedException {
+        if (inFlight < (int) limit) {
+            inFlight++;
+            return true;
+        }
+        if (queued + waiters.size() >= maxQueued) {
+            return false;
+        }
+        queued++;
+        try {
+            long remaining = queueTimeoutNanos;
+            while (inFlight >= (int) limit) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                long start = System.nanoTime();
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                remaining -= System.nanoTime() - start;
+            }
+            inFlight++;
+            return true;
+        } finally {
+            queued--;
+        }
+    }
+
+    /**
+     * Takes a slot without blocking. The returned future completes once the caller holds a slot: at once if one is
+     * free, otherwise when a release hands it one. It fails with RejectedExecutionException when the queue is full
+     * and with TimeoutException after the queue timeout. A caller that cancels the future gives up its place.
+     */
+    public CompletableFuture<Void> acquireAsync() {
+        CompletableFuture<Void> slot = new CompletableFuture<>();
+        synchronized (this) {
+            if (inFlight < (int) limit && waiters.isEmpty()) {
+                inFlight++;
+                slot.complete(null);
+                return slot;
+            }
+            if (queued + waiters.size() >= maxQueued) {
+                slot.completeExceptionally(new RejectedExecutionException("Plaid concurrency queue is full"));
+                return slot;
+            }
+            waiters.add(slot);
+        }
+        slot.orTimeout(queueTimeoutNanos, TimeUnit.NANOSECONDS).whenComplete((ignored, failure) -> {
+            if (failure != null) {
+                synchronized (this) {
+                    waiters.remove(slot);
+                }
+            }
+        });
+        return slot;
+    }
+
+    /**
+     * Releases a slot and feeds the call's outcome into the limit.
+     *
+     * @param rttNanos time the call spent upstream
+     * @param dropped  true when Plaid rejected or failed the call because of load
+     */
+    public void release(long rttNanos, boolean dropped) {
+        List<CompletableFuture<Void>> handOffs;
+        synchronized (this) {
+            int inFlightAtCompletion = inFlight;
+            inFlight--;
+
+            if (dropped) {
+                limit = Math.max(minLimit, limit * DROP_BACKOFF);
+            } else if (inFlightAtCompletion * 2 >= limit) {
+                // Only grow when the limit is actually being exercised; an idle client says nothing about capacity
+                longRttNanos = longRttNanos == 0 ? rttNanos : longRttNanos + (rttNanos - longRttNanos) * LONG_RTT_SMOOTHING;
+                double gradient = Math.max(0.5, Math.min(1.0, longRttNanos / Math.max(1, rttNanos)));
+                double target = limit * gradient + Math.sqrt(limit);
+                limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - LIMIT_SMOOTHING) + target * LIMIT_SMOOTHING));
+            }
+            notifyAll();
+            handOffs = handOffs();
+        }
+        completeHandOffs(handOffs);
+    }
+
+    /** Gives a slot back without a latency sample, for calls that never reached Plaid. */
+    public void cancel() {
+        List<CompletableFuture<Void>> handOffs;
+        synchronized (this) {
+            inFlight--;
+            notifyAll();
+            handOffs = handOffs();
+        }
+        completeHandOffs(handOffs);
+    }
+
+    // Reserves the free slots for the oldest async waiters. Called holding the lock.
+    private List<CompletableFuture<Void>> handOffs() {
+        List<CompletableFuture<Void>> handOffs = new ArrayList<>();
+        while (inFlight < (int) limit && !waiters.isEmpty()) {
+            inFlight++;
+            handOffs.add(waiters.poll());
+        }
+        return handOffs;
+    }
+
+    // Completed outside the lock, since completing runs the waiter's callbacks. A waiter that timed out or was
+    // cancelled meanwhile gives its slot back, which hands it on to the next one.
+    private void completeHandOffs(List<CompletableFuture<Void>> handOffs) {
+        for (CompletableFuture<Void> waiter : handOffs) {
+            if (!waiter.complete(null)) {
+                cancel();
+            }
+        }
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return queued + waiters.size();
+    }
+}
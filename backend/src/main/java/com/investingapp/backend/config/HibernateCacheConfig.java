@@ -0,0 +1,72 @@
+// src/main/java/com/investingapp/backend/config/HibernateCacheConfig.java
+package com.investingapp.backend.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hibernate second-level cache for read-mostly entities (User, PasskeyCredential) and the email -> user ID
+ * natural-id resolutions behind UserRepository.findByEmail, backed by Caffeine through JCache.
+ *
+ * Every region is created here, so each one is bounded. Sizes and TTLs come from
+ * hibernate.l2-cache.<region>.maximum-size / expire-after-write-minutes. The TTL bounds how long a row changed
+ * outside Hibernate (JdbcTemplate batches, native updates) can be served stale. Hit/miss/put counts per region
+ * are published by Hibernate statistics as hibernate.second.level.cache.* metrics.
+ *
+ * There is deliberately no query cache: its update-timestamps region is per node, so a cached (possibly empty)
+ * result would not notice a write made on another node. Entity and natural-id entries are keyed by row, and
+ * writes through Hibernate replace or evict exactly those entries.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(HibernateCacheConfig.class);
+
+    public static final String USER_REGION = "users";
+    public static final String USER_CREDENTIALS_REGION = "users.passkeyCredentials";
+    public static final String PASSKEY_CREDENTIAL_REGION = "passkeyCredentials";
+    public static final String USER_EMAIL_REGION = "users.email";
+
+    private static final List<String> REGIONS = List.of(USER_REGION, USER_CREDENTIALS_REGION, PASSKEY_CREDENTIAL_REGION,
+            USER_EMAIL_REGION);
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(Environment environment) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        for (String region : REGIONS) {
+            long maximumSize = environment.getProperty("hibernate.l2-cache." + region + ".maximum-size", Long.class, 10_000L);
+            long ttlMinutes = environment.getProperty("hibernate.l2-cache." + region + ".expire-after-write-minutes", Long.class, 10L);
+
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maximumSize));
+            if (ttlMinutes > 0) {
+                configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.MINUTES.toNanos(ttlMinutes)));
+            }
+            configuration.setStatisticsEnabled(true);
+            if (cacheManager.getCache(region) != null) {
+                cacheManager.destroyCache(region); // Left over from a previous context in the same JVM (devtools restart, tests)
+            }
+            cacheManager.createCache(region, configuration);
+            logger.info("Hibernate L2 region '{}': maxSize={}, expireAfterWrite={}m", region, maximumSize, ttlMinutes);
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
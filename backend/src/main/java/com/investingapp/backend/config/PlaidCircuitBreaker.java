@@ -0,0 +1,123 @@
+// src/main/java/com/investingapp/backend/config/PlaidCircuitBreaker.java
+package com.investingapp.backend.config;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Count-based circuit breaker shared by all Plaid endpoints.
+ *
+ * CLOSED: calls pass and outcomes are recorded in a sliding window; once the window is full and the failure
+ * rate reaches the threshold the breaker OPENs. OPEN: calls fail fast until the open duration passes.
+ * HALF_OPEN: a single probe is let through; success closes the breaker, failure re-opens it.
+ *
+ * Every state change starts a new generation, and tryAcquire hands out the current one as the call's ticket.
+ * Outcomes are only recorded for tickets of the current generation, so a slow call admitted while CLOSED that
+ * finishes after the breaker opened can neither close it again nor be taken for the half-open probe.
+ */
+public class PlaidCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /** Returned by tryAcquire when the call should fail fast. */
+    public static final long REJECTED = -1;
+
+    private final boolean[] window;
+    private final double failureRateThreshold;
+    private final long openDurationNanos;
+
+    private State state = State.CLOSED;
+    private int position;
+    private int recorded;
+    private int failures;
+    private long openedAt;
+    private boolean probeInFlight;
+    private long generation;
+
+    public PlaidCircuitBreaker(int windowSize, double failureRateThreshold, long openDurationSeconds) {
+        this.window = new boolean[windowSize];
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationNanos = TimeUnit.SECONDS.toNanos(openDurationSeconds);
+    }
+
+    /** Returns the ticket to pass back with the call's outcome, or REJECTED when the call should fail fast. */
+    public synchronized long tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openDurationNanos) {
+                return REJECTED;
+            }
+            state = State.HALF_OPEN;
+            generation++;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) {
+                return REJECTED;
+            }
+            probeInFlight = true;
+        }
+        return generation;
+    }
+
+    /** For an admitted call that never reached Plaid: frees the half-open probe without recording an outcome. */
+    public synchronized void cancel(long ticket) {
+        if (state == State.HALF_OPEN && ticket == generation) {
+            probeInFlight = false;
+        }
+    }
+
+    public synchronized void onSuccess(long ticket) {
+        record(ticket, false);
+    }
+
+    public synchronized void onFailure(long ticket) {
+        record(ticket, true);
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(long ticket, boolean failed) {
+        if (ticket != generation) {
+            return; // Admitted before the last state change; its outcome says nothing about the current state
+        }
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+            if (failed) {
+                open();
+            } else {
+                reset();
+            }
+            return;
+        }
+
+        if (recorded == window.length && window[position]) {
+            failures--;
+        }
+        window[position] = failed;
+        if (failed) {
+            failures++;
+        }
+        position = (position + 1) % window.length;
+        recorded = Math.min(recorded + 1, window.length);
+
+        if (recorded == window.length && failures >= failureRateThreshold * window.length) {
+            open();
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+        generation++;
+    }
+
+    private void reset() {
+        state = State.CLOSED;
+        generation++;
+        position = 0;
+        recorded = 0;
+        failures = 0;
+        Arrays.fill(window, false);
+    }
+}
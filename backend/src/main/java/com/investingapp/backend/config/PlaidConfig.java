@@ -3,6 +3,11 @@ package com.investingapp.backend.config;
 
 import com.plaid.client.ApiClient;
 import com.plaid.client.request.PlaidApi;
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,7 +15,11 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class PlaidConfig {
@@ -26,11 +35,90 @@ public class PlaidConfig {
     @Value("${plaid.env}")
     private String plaidEnv;
 
+    // Only read when plaid.env=simulator; see PlaidSimulatorInterceptor
+    @Value("${plaid.simulator.seed:42}")
+    private long simulatorSeed;
+
+    @Value("${plaid.simulator.latency-median-ms:120}")
+    private long simulatorLatencyMedianMs;
+
+    @Value("${plaid.simulator.latency-p99-ms:900}")
+    private long simulatorLatencyP99Ms;
+
+    @Value("${plaid.simulator.error-rate:0.0}")
+    private double simulatorErrorRate;
+
+    @Value("${plaid.simulator.rate-limit-rate:0.0}")
+    private double simulatorRateLimitRate;
+
+    @Value("${plaid.resilience.limit.initial:10}")
+    private int initialLimit;
+
+    @Value("${plaid.resilience.limit.min:2}")
+    private int minLimit;
+
+    @Value("${plaid.resilience.limit.max:64}")
+    private int maxLimit;
+
+    @Value("${plaid.resilience.limit.queue-size:100}")
+    private int limitQueueSize;
+
+    @Value("${plaid.resilience.limit.queue-timeout-ms:2000}")
+    private long limitQueueTimeoutMs;
+
+    @Value("${plaid.resilience.retry.max-attempts:3}")
+    private int retryMaxAttempts;
+
+    @Value("${plaid.resilience.retry.base-backoff-ms:200}")
+    private long retryBaseBackoffMs;
+
+    @Value("${plaid.resilience.retry.max-backoff-ms:5000}")
+    private long retryMaxBackoffMs;
+
+    @Value("${plaid.resilience.circuit.window-size:20}")
+    private int circuitWindowSize;
+
+    @Value("${plaid.resilience.circuit.failure-rate-threshold:0.5}")
+    private double circuitFailureRateThreshold;
+
+    @Value("${plaid.resilience.circuit.open-duration-seconds:30}")
+    private long circuitOpenDurationSeconds;
+
+    // OkHttp transport. The defaults (5 requests per host, 5 idle connections) would cap Plaid concurrency far
+    // below the adaptive limit, so the per-host limit should stay at or above plaid.resilience.limit.max.
+    @Value("${plaid.http.max-requests:128}")
+    private int httpMaxRequests;
+
+    @Value("${plaid.http.max-requests-per-host:64}")
+    private int httpMaxRequestsPerHost;
+
+    @Value("${plaid.http.pool.max-idle-connections:32}")
+    private int httpMaxIdleConnections;
+
+    @Value("${plaid.http.pool.keep-alive-seconds:300}")
+    private long httpKeepAliveSeconds;
+
+    @Value("${plaid.http.connect-timeout-ms:5000}")
+    private long httpConnectTimeoutMs;
+
+    @Value("${plaid.http.read-timeout-ms:30000}")
+    private long httpReadTimeoutMs;
+
+    @Value("${plaid.http.write-timeout-ms:10000}")
+    private long httpWriteTimeoutMs;
+
+    @Value("${plaid.http.http2-enabled:true}")
+    private boolean httpHttp2Enabled;
+
     @Bean
-    public PlaidApi plaidApi() {
+    public PlaidApi plaidApi(MeterRegistry meterRegistry, PlaidResilienceInterceptor plaidResilienceInterceptor) {
         logger.info("Initializing Plaid API client. Client ID set: {}, Env: {}",
                 (plaidClientId != null && !plaidClientId.isEmpty()), plaidEnv);
 
+        if ("simulator".equalsIgnoreCase(plaidEnv)) {
+            return simulatedPlaidApi(meterRegistry, plaidResilienceInterceptor);
+        }
+
         if (plaidClientId == null || plaidClientId.isEmpty()) {
             logger.error("PLAID_CLIENT_ID is not set in properties. Plaid client cannot be initialized.");
             throw new IllegalStateException("PLAID_CLIENT_ID is not configured.");
@@ -63,6 +151,9 @@ public class PlaidConfig {
             logger.warn("Warning: Invalid PLAID_ENV value ('{}') in properties, defaulting to Sandbox.", plaidEnv);
         }
 
+        configureTransport(apiClient.getOkBuilder(), meterRegistry);
+        apiClient.getOkBuilder().addInterceptor(plaidResilienceInterceptor);
+
         // The Plaid-Version header is usually added by the client library automatically.
         // If you needed to force a specific version and the above doesn't work,
         // you might need to configure the underlying OkHttpClient used by ApiClient,
@@ -70,4 +161,46 @@ public class PlaidConfig {
 
         return apiClient.createService(PlaidApi.class);
     }
-}
\ No newline at end of file
+
+    // Local stand-in for load and resilience testing: no credentials needed and no request leaves the JVM.
+    private PlaidApi simulatedPlaidApi(MeterRegistry meterRegistry, PlaidResilienceInterceptor plaidResilienceInterceptor) {
+        ApiClient apiClient = new ApiClient(new HashMap<>());
+        apiClient.setPlaidAdapter("http://plaid-simulator.invalid");
+        configureTransport(apiClient.getOkBuilder(), meterRegistry);
+        // Resilience first, so the simulator's injected latency and errors exercise the same policy as real Plaid
+        apiClient.getOkBuilder().addInterceptor(plaidResilienceInterceptor);
+        apiClient.getOkBuilder().addInterceptor(new PlaidSimulatorInterceptor(simulatorSeed,
+                simulatorLatencyMedianMs, simulatorLatencyP99Ms, simulatorErrorRate, simulatorRateLimitRate));
+        logger.warn("Plaid client configured for the local SIMULATOR. Do not use outside of testing.");
+        return apiClient.createService(PlaidApi.class);
+    }
+
+    private void configureTransport(OkHttpClient.Builder okBuilder, MeterRegistry meterRegistry) {
+        // Same pool shape as OkHttp's default, with threads the resilience interceptor recognises as non-blocking
+        Dispatcher dispatcher = new Dispatcher(new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), PlaidResilienceInterceptor.dispatcherThreadFactory()));
+        dispatcher.setMaxRequests(httpMaxRequests);
+        dispatcher.setMaxRequestsPerHost(httpMaxRequestsPerHost);
+
+        okBuilder.dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(httpMaxIdleConnections, httpKeepAliveSeconds, TimeUnit.SECONDS))
+                .connectTimeout(httpConnectTimeoutMs, TimeUnit.MILLISECONDS)
+                .readTimeout(httpReadTimeoutMs, TimeUnit.MILLISECONDS)
+                .writeTimeout(httpWriteTimeoutMs, TimeUnit.MILLISECONDS)
+                .protocols(httpHttp2Enabled ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1) : List.of(Protocol.HTTP_1_1))
+                .eventListenerFactory(PlaidHttpEventListener.factory(meterRegistry));
+
+        logger.info("Plaid HTTP transport: maxRequests={}, maxRequestsPerHost={}, pool={} idle/{}s, connect={}ms, read={}ms, http2={}",
+                httpMaxRequests, httpMaxRequestsPerHost, httpMaxIdleConnections, httpKeepAliveSeconds,
+                httpConnectTimeoutMs, httpReadTimeoutMs, httpHttp2Enabled);
+    }
+
+    // Also used directly by PlaidService, which admits and retries enqueued calls through it
+    @Bean
+    public PlaidResilienceInterceptor plaidResilienceInterceptor(MeterRegistry meterRegistry) {
+        PlaidCircuitBreaker circuitBreaker = new PlaidCircuitBreaker(circuitWindowSize, circuitFailureRateThreshold, circuitOpenDurationSeconds);
+        return new PlaidResilienceInterceptor(meterRegistry, circuitBreaker,
+                initialLimit, minLimit, maxLimit, limitQueueSize, limitQueueTimeoutMs,
+                retryMaxAttempts, retryBaseBackoffMs, retryMaxBackoffMs);
+    }
+}
@@ -0,0 +1,131 @@
+// src/main/java/com/investingapp/backend/config/PlaidHttpEventListener.java
+package com.investingapp.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call OkHttp listener for the Plaid client. Records how long each phase of a Plaid call takes
+ * (DNS, TCP connect, TLS handshake, time to first byte and the whole call) as {@code plaid.http.phase}
+ * timers tagged by endpoint, plus whether the call reused a pooled connection.
+ */
+public class PlaidHttpEventListener extends EventListener {
+
+    private static final String PHASE_TIMER = "plaid.http.phase";
+
+    private final MeterRegistry meterRegistry;
+    private final String endpoint;
+
+    private long callStart;
+    private long dnsStart;
+    private long connectStart;
+    private long secureConnectStart;
+    private long requestStart;
+    private boolean connected;
+
+    private PlaidHttpEventListener(MeterRegistry meterRegistry, String endpoint) {
+        this.meterRegistry = meterRegistry;
+        this.endpoint = endpoint;
+    }
+
+    public static EventListener.Factory factory(MeterRegistry meterRegistry) {
+        return call -> new PlaidHttpEventListener(meterRegistry, call.request().url().encodedPath());
+    }
+
+    @Override
+    public void callStart(Call call) {
+        callStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsStart(Call call, String domainName) {
+        dnsStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+        record("dns", dnsStart);
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        connectStart = System.nanoTime();
+        connected = true;
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+        secureConnectStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        record("tls", secureConnectStart);
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        record("connect", connectStart);
+    }
+
+    @Override
+    public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol, IOException ioe) {
+        record("connect_failed", connectStart);
+    }
+
+    @Override
+    public void connectionAcquired(Call call, Connection connection) {
+        Counter.builder("plaid.http.connections")
+                .tag("endpoint", endpoint)
+                .tag("reused", String.valueOf(!connected))
+                .tag("protocol", connection.protocol().toString())
+                .register(meterRegistry)
+                .increment();
+        connected = false; // A retry on the same call may pick up a different connection
+    }
+
+    @Override
+    public void requestHeadersStart(Call call) {
+        requestStart = System.nanoTime();
+    }
+
+    // TTFB: from the first request byte written to the first response byte read
+    @Override
+    public void responseHeadersStart(Call call) {
+        record("ttfb", requestStart);
+    }
+
+    @Override
+    public void callEnd(Call call) {
+        record("call", callStart);
+    }
+
+    @Override
+    public void callFailed(Call call, IOException ioe) {
+        record("call_failed", callStart);
+    }
+
+    private void record(String phase, long startNanos) {
+        if (startNanos == 0) {
+            return;
+        }
+        Timer.builder(PHASE_TIMER)
+                .tag("endpoint", endpoint)
+                .tag("phase", phase)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
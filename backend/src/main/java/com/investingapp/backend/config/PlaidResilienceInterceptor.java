@@ -0,0 +1,338 @@
+// src/main/java/com/investingapp/backend/config/PlaidResilienceInterceptor.java
+package com.investingapp.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resilience layer for every call made through the PlaidApi bean:
+ *
+ * - a shared {@link PlaidCircuitBreaker} that fails fast while Plaid keeps erroring or timing out, checked first
+ *   so that an open breaker never makes callers wait for a concurrency slot;
+ * - a per-endpoint {@link AdaptiveConcurrencyLimiter}, with a bounded wait queue in front of it;
+ * - retries with jittered exponential backoff, only for read-only endpoints and link token creation,
+ *   on I/O errors, 5xx and 429 RATE_LIMIT_EXCEEDED (honouring Retry-After when Plaid sends it).
+ *
+ * Synchronous execute() calls get all of this here, as an OkHttp interceptor, on the caller's thread.
+ * Calls enqueued by PlaidService run on OkHttp's dispatcher threads (see {@link #dispatcherThreadFactory()}),
+ * which must never block, so the interceptor lets them straight through: PlaidService admits each attempt with
+ * {@link #admitAsync(String)}, which waits for a slot as a callback, reports the outcome on the returned
+ * {@link Permit}, and schedules the retries {@link #retryDelayMs} allows on a delayed executor.
+ *
+ * Rejections surface as IOExceptions, which PlaidService already maps to its error responses.
+ */
+public class PlaidResilienceInterceptor implements Interceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaidResilienceInterceptor.class);
+    private static final String METRIC_PREFIX = "plaid.client";
+
+    // Retrying these cannot duplicate side effects. A public token exchange, for example, is single-use.
+    private static final Set<String> RETRYABLE_ENDPOINTS = Set.of(
+            "/accounts/get",
+            "/transactions/recurring/get",
+            "/webhook_verification_key/get",
+            "/link/token/create");
+
+    private static final ThreadLocal<Boolean> ON_DISPATCHER_THREAD = ThreadLocal.withInitial(() -> false);
+
+    private final MeterRegistry meterRegistry;
+    private final PlaidCircuitBreaker circuitBreaker;
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueued;
+    private final long queueTimeoutMs;
+    private final int maxAttempts;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+
+    public PlaidResilienceInterceptor(MeterRegistry meterRegistry, PlaidCircuitBreaker circuitBreaker,
+                                      int initialLimit, int minLimit, int maxLimit, int maxQueued, long queueTimeoutMs,
+                                      int maxAttempts, long baseBackoffMs, long maxBackoffMs) {
+        this.meterRegistry = meterRegistry;
+        this.circuitBreaker = circuitBreaker;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueued = maxQueued;
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+
+        Gauge.builder(METRIC_PREFIX + ".circuit.state", circuitBreaker, cb -> cb.getState().ordinal())
+                .description("Plaid circuit breaker state: 0=closed, 1=open, 2=half-open")
+                .register(meterRegistry);
+    }
+
+    /** Thread factory for the Plaid client's OkHttp Dispatcher; marks its threads as ones that must not block. */
+    public static ThreadFactory dispatcherThreadFactory() {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(() -> {
+                ON_DISPATCHER_THREAD.set(true);
+                runnable.run();
+            }, "plaid-http-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (ON_DISPATCHER_THREAD.get()) {
+            // An enqueued call: PlaidService admitted it through admitAsync and handles its outcome and retries
+            return chain.proceed(request);
+        }
+        String endpoint = request.url().encodedPath();
+
+        for (int attempt = 1; ; attempt++) {
+            Permit permit = admit(endpoint);
+            Response response = null;
+            IOException ioFailure = null;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                ioFailure = e;
+            } finally {
+                // Covers runtime exceptions too: the slot and a half-open probe must never leak
+                if (response == null) {
+                    permit.onFailure();
+                }
+            }
+            if (ioFailure != null) {
+                long delayMs = chain.call().isCanceled() ? -1 : retryDelayMs(endpoint, attempt, -1, null);
+                if (delayMs < 0) {
+                    throw ioFailure;
+                }
+                sleep(delayMs);
+                continue;
+            }
+
+            permit.onResponse(response.code());
+            long delayMs = chain.call().isCanceled() ? -1
+                    : retryDelayMs(endpoint, attempt, response.code(), response.header("Retry-After"));
+            if (delayMs < 0) {
+                return response;
+            }
+            response.close();
+            sleep(delayMs);
+        }
+    }
+
+    /**
+     * Admits an enqueued call without blocking. Completes with the call's permit once the circuit breaker lets it
+     * through and a concurrency slot is free, waiting in the endpoint's queue if need be. Fails with an IOException
+     * when the breaker is open or the queue is full or times out. Cancelling the future gives up the place in the
+     * queue, or the slot if it was already granted.
+     */
+    public CompletableFuture<Permit> admitAsync(String endpoint) {
+        long ticket = circuitBreaker.tryAcquire();
+        if (ticket == PlaidCircuitBreaker.REJECTED) {
+            rejected(endpoint, "circuit_open");
+            return CompletableFuture.failedFuture(circuitOpen(endpoint));
+        }
+        AdaptiveConcurrencyLimiter limiter = limiters.computeIfAbsent(endpoint, this::newLimiter);
+        CompletableFuture<Void> slot = limiter.acquireAsync();
+        CompletableFuture<Permit> admitted = new CompletableFuture<>();
+        slot.whenComplete((ignored, failure) -> {
+            if (failure == null) {
+                Permit permit = new Permit(limiter, ticket);
+                if (!admitted.complete(permit)) {
+                    permit.cancel();
+                }
+                return;
+            }
+            circuitBreaker.cancel(ticket);
+            if (!admitted.isDone()) {
+                rejected(endpoint, "limit");
+                admitted.completeExceptionally(limitReached(endpoint, limiter));
+            }
+        });
+        admitted.whenComplete((permit, failure) -> {
+            if (admitted.isCancelled()) {
+                slot.cancel(false);
+            }
+        });
+        return admitted;
+    }
+
+    /**
+     * How long to wait before retrying a failed attempt, or -1 when it must not be retried: the endpoint isn't
+     * safe to repeat, the attempts are used up, or the failure isn't transient. Pass statusCode -1 for an I/O
+     * failure, and the response's Retry-After header (or null). A retry it allows is counted in the metrics.
+     */
+    public long retryDelayMs(String endpoint, int attempt, int statusCode, String retryAfter) {
+        boolean rateLimited = statusCode == 429;
+        boolean transientFailure = statusCode == -1 || rateLimited || statusCode >= 500;
+        if (!transientFailure || attempt >= maxAttempts || !RETRYABLE_ENDPOINTS.contains(endpoint)) {
+            return -1;
+        }
+        long delayMs = rateLimited ? rateLimitDelayMs(retryAfter, attempt) : backoffMs(attempt);
+        String cause = statusCode == -1 ? "io" : rateLimited ? "rate_limit" : "server_error";
+        Counter.builder(METRIC_PREFIX + ".retries")
+                .tag("endpoint", endpoint)
+                .tag("cause", cause)
+                .register(meterRegistry)
+                .increment();
+        logger.warn("Plaid {} attempt {} failed ({}); retrying in {}ms", endpoint, attempt, cause, delayMs);
+        return delayMs;
+    }
+
+    /**
+     * A call's concurrency slot and circuit breaker ticket. Exactly one of onResponse, onFailure and cancel must
+     * be called for it; later calls are ignored.
+     */
+    public final class Permit {
+
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final long ticket;
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private Permit(AdaptiveConcurrencyLimiter limiter, long ticket) {
+            this.limiter = limiter;
+            this.ticket = ticket;
+        }
+
+        /** Plaid answered with this HTTP status. */
+        public void onResponse(int statusCode) {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            boolean rateLimited = statusCode == 429;
+            boolean serverError = statusCode >= 500;
+            limiter.release(System.nanoTime() - startNanos, rateLimited || serverError);
+            // Rate limits mean we are too fast, not that Plaid is down, so they only shrink the limit
+            if (serverError) {
+                circuitBreaker.onFailure(ticket);
+            } else {
+                circuitBreaker.onSuccess(ticket);
+            }
+        }
+
+        /** The call failed without a response (I/O error, timeout). */
+        public void onFailure() {
+            if (done.compareAndSet(false, true)) {
+                limiter.release(System.nanoTime() - startNanos, true);
+                circuitBreaker.onFailure(ticket);
+            }
+        }
+
+        /** The call never reached Plaid, or was cancelled by the caller; records no outcome. */
+        public void cancel() {
+            if (done.compareAndSet(false, true)) {
+                limiter.cancel();
+                circuitBreaker.cancel(ticket);
+            }
+        }
+    }
+
+    // Blocking admission for the synchronous path
+    private Permit admit(String endpoint) throws IOException {
+        long ticket = circuitBreaker.tryAcquire();
+        if (ticket == PlaidCircuitBreaker.REJECTED) {
+            rejected(endpoint, "circuit_open");
+            throw circuitOpen(endpoint);
+        }
+        AdaptiveConcurrencyLimiter limiter = limiters.computeIfAbsent(endpoint, this::newLimiter);
+        boolean acquired;
+        try {
+            acquired = limiter.acquire();
+        } catch (InterruptedException e) {
+            circuitBreaker.cancel(ticket);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a Plaid concurrency slot");
+        }
+        if (!acquired) {
+            circuitBreaker.cancel(ticket);
+            rejected(endpoint, "limit");
+            throw limitReached(endpoint, limiter);
+        }
+        return new Permit(limiter, ticket);
+    }
+
+    private static IOException circuitOpen(String endpoint) {
+        return new IOException("Plaid circuit breaker is open; failing fast on " + endpoint);
+    }
+
+    private static IOException limitReached(String endpoint, AdaptiveConcurrencyLimiter limiter) {
+        return new IOException("Plaid concurrency limit reached for " + endpoint + " (limit " + limiter.getLimit()
+                + ", queued " + limiter.getQueued() + "); request rejected");
+    }
+
+    // Only reached on the synchronous path, on the caller's own thread
+    private static void sleep(long delayMs) throws InterruptedIOException {
+        try {
+            Thread.sleep(delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during Plaid retry backoff");
+        }
+    }
+
+    private void rejected(String endpoint, String reason) {
+        Counter.builder(METRIC_PREFIX + ".rejected")
+                .tag("endpoint", endpoint)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // Full jitter: uniform in [0, min(max, base * 2^(attempt-1))]
+    private long backoffMs(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    // Rate limits get a longer, equal-jitter backoff unless Plaid tells us exactly how long to wait
+    private long rateLimitDelayMs(String retryAfter, int attempt) {
+        if (retryAfter != null) {
+            try {
+                return Math.min(maxBackoffMs, TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim())));
+            } catch (NumberFormatException ignored) {
+                // HTTP-date form; fall through to our own backoff
+            }
+        }
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt, 20));
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    private AdaptiveConcurrencyLimiter newLimiter(String endpoint) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, maxQueued, queueTimeoutMs);
+        Gauge.builder(METRIC_PREFIX + ".concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("endpoint", endpoint)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("endpoint", endpoint)
+                .description("Plaid calls currently in flight")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".queue.depth", limiter, AdaptiveConcurrencyLimiter::getQueued)
+                .tag("endpoint", endpoint)
+                .description("Callers waiting for a Plaid concurrency slot")
+                .register(meterRegistry);
+        return limiter;
+    }
+}
@@ -0,0 +1,243 @@
+// src/main/java/com/investingapp/backend/config/PlaidSimulatorInterceptor.java
+package com.investingapp.backend.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the Plaid API, installed as an OkHttp application interceptor when
+ * {@code plaid.env=simulator}. Requests never leave the JVM: the interceptor answers accounts/get,
+ * transactions/recurring/get, link/token/create and item/public_token/exchange with synthetic data,
+ * after sleeping for a log-normally distributed latency and optionally failing with INTERNAL_SERVER_ERROR
+ * or RATE_LIMIT_EXCEEDED.
+ *
+ * Synthetic data is derived from a hash of the access/public token, so the same item always sees the same
+ * accounts and income streams. Latency and error draws come from a fixed seed mixed with a request sequence
+ * number, so a single-threaded run is fully reproducible.
+ */
+public class PlaidSimulatorInterceptor implements Interceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaidSimulatorInterceptor.class);
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+    // z-score of the 99th percentile, used to turn (median, p99) into a log-normal sigma
+    private static final double Z_99 = 2.326;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final long seed;
+    private final double latencyMu;
+    private final double latencySigma;
+    private final double errorRate;
+    private final double rateLimitRate;
+
+    public PlaidSimulatorInterceptor(long seed, long latencyMedianMs, long latencyP99Ms, double errorRate, double rateLimitRate) {
+        if (latencyMedianMs < 0 || latencyP99Ms < latencyMedianMs) {
+            throw new IllegalArgumentException("Simulator latency requires 0 <= median <= p99");
+        }
+        this.seed = seed;
+        this.latencyMu = latencyMedianMs > 0 ? Math.log(latencyMedianMs) : Double.NEGATIVE_INFINITY;
+        this.latencySigma = latencyMedianMs > 0 ? Math.log((double) latencyP99Ms / latencyMedianMs) / Z_99 : 0;
+        this.errorRate = errorRate;
+        this.rateLimitRate = rateLimitRate;
+        logger.info("Plaid simulator enabled. latency median={}ms p99={}ms, errorRate={}, rateLimitRate={}, seed={}",
+                latencyMedianMs, latencyP99Ms, errorRate, rateLimitRate, seed);
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String path = request.url().encodedPath();
+        SplittableRandom random = new SplittableRandom(seed ^ (sequence.incrementAndGet() * 0x9E3779B97F4A7C15L));
+
+        sleep(random);
+
+        double roll = random.nextDouble();
+        if (roll < rateLimitRate) {
+            return error(request, 429, "RATE_LIMIT_EXCEEDED", rateLimitCode(path), "rate limit exceeded (simulated)");
+        }
+        if (roll < rateLimitRate + errorRate) {
+            return error(request, 500, "API_ERROR", "INTERNAL_SERVER_ERROR", "an unexpected error occurred (simulated)");
+        }
+
+        JsonNode body = readBody(request);
+        ObjectNode response;
+        switch (path) {
+            case "/accounts/get" -> response = accountsGet(body.path("access_token").asText());
+            case "/transactions/recurring/get" -> response = recurringGet(body.path("access_token").asText());
+            case "/link/token/create" -> response = linkTokenCreate();
+            case "/item/public_token/exchange" -> response = publicTokenExchange(body.path("public_token").asText());
+            default -> {
+                return error(request, 400, "INVALID_REQUEST", "NOT_FOUND", "endpoint " + path + " is not simulated");
+            }
+        }
+        response.put("request_id", requestId(random));
+        return respond(request, 200, response);
+    }
+
+    private ObjectNode accountsGet(String accessToken) {
+        String itemKey = itemKey(accessToken);
+        ObjectNode root = objectMapper.createObjectNode();
+        ArrayNode accounts = root.putArray("accounts");
+        accounts.add(account(itemKey + "-chk", "Simulated Checking", "checking", itemKey.substring(0, 4)));
+        accounts.add(account(itemKey + "-sav", "Simulated Savings", "savings", itemKey.substring(4, 8)));
+        root.putObject("item").put("item_id", "item-simulator-" + itemKey);
+        return root;
+    }
+
+    private ObjectNode account(String accountId, String name, String subtype, String mask) {
+        ObjectNode account = objectMapper.createObjectNode();
+        account.put("account_id", accountId);
+        account.put("name", name);
+        account.put("official_name", name);
+        account.put("mask", mask);
+        account.put("type", "depository");
+        account.put("subtype", subtype);
+        account.putObject("balances").put("current", 1000.0).put("iso_currency_code", "USD");
+        return account;
+    }
+
+    private ObjectNode recurringGet(String accessToken) {
+        String itemKey = itemKey(accessToken);
+        // Stable per-item data: one or two paychecks landing in the checking account
+        SplittableRandom itemRandom = new SplittableRandom(itemKey.hashCode());
+        int streamCount = 1 + itemRandom.nextInt(2);
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+        ObjectNode root = objectMapper.createObjectNode();
+        ArrayNode inflows = root.putArray("inflow_streams");
+        for (int i = 0; i < streamCount; i++) {
+            boolean biweekly = i == 0;
+            double amount = -(1200 + itemRandom.nextInt(3800) + itemRandom.nextInt(100) / 100.0); // Plaid reports inflows as negative
+            LocalDate lastDate = today.minusDays(itemRandom.nextInt(biweekly ? 14 : 30));
+            ObjectNode stream = inflows.addObject();
+            stream.put("account_id", itemKey + "-chk");
+            stream.put("stream_id", itemKey + "-stream-" + i);
+            stream.put("description", "PAYROLL DIRECT DEP " + i);
+            stream.put("merchant_name", "Simulated Employer " + (char) ('A' + i));
+            stream.put("first_date", lastDate.minusMonths(6).toString());
+            stream.put("last_date", lastDate.toString());
+            stream.put("frequency", biweekly ? "BIWEEKLY" : "MONTHLY");
+            stream.putObject("average_amount").put("amount", amount).put("iso_currency_code", "USD");
+            stream.putObject("last_amount").put("amount", amount).put("iso_currency_code", "USD");
+            stream.put("is_active", true);
+            stream.put("status", "MATURE");
+            stream.putArray("transaction_ids");
+        }
+        root.putArray("outflow_streams");
+        root.put("updated_datetime", OffsetDateTime.now(ZoneOffset.UTC).toString());
+        return root;
+    }
+
+    private ObjectNode linkTokenCreate() {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("link_token", "link-simulator-" + UUID.randomUUID());
+        root.put("expiration", OffsetDateTime.now(ZoneOffset.UTC).plusHours(4).toString());
+        return root;
+    }
+
+    private ObjectNode publicTokenExchange(String publicToken) {
+        String itemKey = itemKey(publicToken);
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("access_token", "access-simulator-" + itemKey);
+        root.put("item_id", "item-simulator-" + itemKey);
+        return root;
+    }
+
+    private void sleep(SplittableRandom random) throws InterruptedIOException {
+        if (latencyMu == Double.NEGATIVE_INFINITY) {
+            return;
+        }
+        // Box-Muller draw for a standard normal, then scale into the configured log-normal
+        double gaussian = Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+        long delayMs = Math.round(Math.exp(latencyMu + latencySigma * gaussian));
+        try {
+            Thread.sleep(delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Plaid simulator interrupted");
+        }
+    }
+
+    private Response error(Request request, int status, String errorType, String errorCode, String message) {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("error_type", errorType);
+        root.put("error_code", errorCode);
+        root.put("error_message", message);
+        root.putNull("display_message");
+        root.put("request_id", UUID.randomUUID().toString());
+        return respond(request, status, root);
+    }
+
+    private Response respond(Request request, int status, ObjectNode body) {
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(status)
+                .message(status == 200 ? "OK" : "Simulated " + status)
+                .body(ResponseBody.create(body.toString(), JSON))
+                .build();
+    }
+
+    private JsonNode readBody(Request request) throws IOException {
+        if (request.body() == null) {
+            return objectMapper.createObjectNode();
+        }
+        Buffer buffer = new Buffer();
+        request.body().writeTo(buffer);
+        return objectMapper.readTree(buffer.readUtf8());
+    }
+
+    // Mirrors the error codes Plaid uses for per-product rate limits
+    private static String rateLimitCode(String path) {
+        if (path.startsWith("/transactions")) {
+            return "TRANSACTIONS_LIMIT";
+        }
+        if (path.startsWith("/accounts")) {
+            return "ACCOUNTS_LIMIT";
+        }
+        return "RATE_LIMIT";
+    }
+
+    private static String requestId(SplittableRandom random) {
+        return Long.toHexString(random.nextLong());
+    }
+
+    // Simulated access tokens already carry their item key; anything else (public tokens, sandbox tokens) is hashed
+    private static String itemKey(String token) {
+        String prefix = "access-simulator-";
+        if (token != null && token.startsWith(prefix)) {
+            return token.substring(prefix.length());
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(String.valueOf(token).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
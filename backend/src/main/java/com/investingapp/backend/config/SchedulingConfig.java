@@ -0,0 +1,11 @@
+// src/main/java/com/investingapp/backend/config/SchedulingConfig.java
+package com.investingapp.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Enables @Scheduled background jobs (income refresh, cleanup sweeps)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
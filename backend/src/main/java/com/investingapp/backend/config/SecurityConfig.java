@@ -4,6 +4,8 @@ package com.investingapp.backend.config;
 import com.investingapp.backend.security.jwt.AuthEntryPointJwt;
 import com.investingapp.backend.security.jwt.AuthTokenFilter;
 import com.investingapp.backend.security.services.UserDetailsServiceImpl;
+import jakarta.servlet.DispatcherType;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value; // Import Value
 import org.springframework.context.annotation.Bean;
@@ -47,6 +49,12 @@ public class SecurityConfig {
     // IMPORTANT: Replace "YOUR_ANGULAR_PORT_ON_IPHONE" with the port (e.g., 8100, 4200).
     private final String iphoneAngularOrigin = "http://YOUR_MACBOOK_IP_ADDRESS:YOUR_ANGULAR_PORT_ON_IPHONE";
 
+    @Value("${server.port:8080}")
+    private int serverPort;
+
+    // -1 (or the API port) when actuator isn't on a port of its own
+    @Value("${management.server.port:-1}")
+    private int managementPort;
 
     @Bean
     public AuthTokenFilter authenticationJwtTokenFilter() {
@@ -104,6 +112,7 @@ public class SecurityConfig {
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+        boolean separateManagementPort = managementPort > 0 && managementPort != serverPort;
         http
             .cors(cors -> cors.configurationSource(corsConfigurationSource())) // ADD THIS LINE for CORS
             .csrf(AbstractHttpConfigurer::disable)
@@ -113,10 +122,17 @@ public class SecurityConfig {
             )
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(authorize -> authorize
+                // CompletableFuture responses re-dispatch as ASYNC; the original REQUEST dispatch was already authorized
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                // Actuator is only reachable on the management port, which is bound to an internal address
+                // (management.server.*); app users never get to it, whatever their token
+                .requestMatchers(request -> separateManagementPort && request.getLocalPort() == managementPort).permitAll()
+                .requestMatchers(EndpointRequest.toAnyEndpoint()).denyAll()
                 .requestMatchers("/.well-known/apple-app-site-association").permitAll()
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/plaid/create_link_token_anonymous").permitAll()
                 .requestMatchers("/api/plaid/exchange_public_token_anonymous").permitAll()
+                .requestMatchers("/api/plaid/webhook").permitAll() // Authenticated by the Plaid-Verification JWT instead
                 .requestMatchers("/api/passkey/**").permitAll()
                 .requestMatchers("/hello").permitAll()
                 .anyRequest().authenticated()
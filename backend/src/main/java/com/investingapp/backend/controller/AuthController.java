@@ -5,12 +5,16 @@ import com.investingapp.backend.dto.JwtResponse;
 import com.investingapp.backend.dto.LoginRequest;
 import com.investingapp.backend.dto.MessageResponse; // You created this earlier
 import com.investingapp.backend.dto.RegisterRequest;
+import com.investingapp.backend.dto.TokenRefreshRequest;
 import com.investingapp.backend.model.User;
 import com.investingapp.backend.security.jwt.JwtUtils;
 import com.investingapp.backend.security.services.UserDetailsImpl;
+import com.investingapp.backend.service.RefreshTokenService;
 import com.investingapp.backend.service.UserService;
 import com.yubico.webauthn.AssertionRequest;
 
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 import java.util.Map;
@@ -64,6 +68,9 @@ public class AuthController {
     @Autowired
     JwtUtils jwtUtils;
 
+    @Autowired
+    RefreshTokenService refreshTokenService;
+
     @GetMapping("/testuser")
     public ResponseEntity<String> userAccess() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -130,9 +137,10 @@ public class AuthController {
                     /* ... error handling ... */ }
             } else {
                 SecurityContextHolder.getContext().setAuthentication(authentication);
-                String jwt = jwtUtils.generateJwtToken(authentication);
+                RefreshTokenService.IssuedTokens tokens = refreshTokenService.issue(userDetails);
                 logger.info("JWT generated for logged-in user (2FA not enabled): {}", loginRequest.getEmail());
-                return ResponseEntity.ok(new JwtResponse(jwt, userDetails.getId(), userDetails.getUsername()));
+                return ResponseEntity.ok(new JwtResponse(tokens.accessToken(), tokens.refreshToken(),
+                        userDetails.getId(), userDetails.getUsername()));
             }
         } catch (Exception e) { /* ... error handling ... */
             logger.error("Login failed for {}: {}", loginRequest.getEmail(), e.getMessage());
@@ -143,4 +151,28 @@ public class AuthController {
                 .body(new MessageResponse("Login process error.")); // Should not reach here
     }
 
-}
\ No newline at end of file
+    // Exchanges a refresh token for a new access token and a new refresh token (the old one is consumed)
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refreshToken(@Valid @RequestBody TokenRefreshRequest refreshRequest) {
+        Optional<RefreshTokenService.IssuedTokens> tokens = refreshTokenService.rotate(refreshRequest.getRefreshToken());
+        if (tokens.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new MessageResponse("Refresh token is invalid, expired or revoked. Please log in again."));
+        }
+        UserDetailsImpl principal = tokens.get().principal();
+        return ResponseEntity.ok(new JwtResponse(tokens.get().accessToken(), tokens.get().refreshToken(),
+                principal.getId(), principal.getUsername()));
+    }
+
+    // Revokes the refresh token family and the bearer access token, if one was sent
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestBody(required = false) TokenRefreshRequest logoutRequest,
+                                    HttpServletRequest request) {
+        String jwt = jwtUtils.parseJwt(request);
+        Claims accessClaims = jwt != null ? jwtUtils.parseAndValidate(jwt).orElse(null) : null;
+        String refreshToken = logoutRequest != null ? logoutRequest.getRefreshToken() : null;
+        refreshTokenService.logout(refreshToken, accessClaims);
+        SecurityContextHolder.clearContext();
+        return ResponseEntity.ok(new MessageResponse("Logged out."));
+    }
+}
@@ -7,7 +7,8 @@ import com.investingapp.backend.dto.SelectedPaycheckDto;
 import com.investingapp.backend.model.User;
 import com.investingapp.backend.repository.UserRepository;
 import com.investingapp.backend.security.services.UserDetailsImpl;
-import com.investingapp.backend.service.EncryptionService;
+import com.investingapp.backend.service.IncomeRefreshService;
+import com.investingapp.backend.service.IncomeStreamService;
 import com.investingapp.backend.service.PlaidService;
 // You'll need a service to handle saving paycheck configurations, let's call it UserFinancialConfigService
 import com.investingapp.backend.service.UserFinancialConfigService; 
@@ -16,6 +17,8 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -24,6 +27,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @CrossOrigin(origins = "*", maxAge = 3600) // Adjust for production
 @RestController
@@ -34,27 +38,32 @@ public class IncomeController {
 
     private final PlaidService plaidService;
     private final UserRepository userRepository;
-    private final EncryptionService encryptionService;
     private final UserFinancialConfigService userFinancialConfigService; // New service
+    private final IncomeStreamService incomeStreamService;
+    private final IncomeRefreshService incomeRefreshService;
 
     @Autowired
     public IncomeController(PlaidService plaidService,
                             UserRepository userRepository,
-                            EncryptionService encryptionService,
-                            UserFinancialConfigService userFinancialConfigService) {
+                            UserFinancialConfigService userFinancialConfigService,
+                            IncomeStreamService incomeStreamService,
+                            IncomeRefreshService incomeRefreshService) {
         this.plaidService = plaidService;
         this.userRepository = userRepository;
-        this.encryptionService = encryptionService;
         this.userFinancialConfigService = userFinancialConfigService;
+        this.incomeStreamService = incomeStreamService;
+        this.incomeRefreshService = incomeRefreshService;
     }
 
+    // Served from the income_streams table kept fresh by IncomeRefreshService. Only a user who has never been
+    // refreshed (e.g. just linked) waits on Plaid, and the Tomcat thread is released while that call is in flight.
     @GetMapping("/paycheck_sources")
-    public ResponseEntity<?> getPaycheckSources() {
+    public CompletableFuture<ResponseEntity<?>> getPaycheckSources() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         // Ensure principal is UserDetailsImpl before casting
         if (!(authentication.getPrincipal() instanceof UserDetailsImpl)) {
             logger.warn("/income/paycheck_sources: Authentication principal is not an instance of UserDetailsImpl.");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new MessageResponse("Invalid authentication details."));
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new MessageResponse("Invalid authentication details.")));
         }
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
         
@@ -62,26 +71,58 @@ public class IncomeController {
 
         if (appUser == null) {
             logger.warn("/income/paycheck_sources: User ID {} not found from authenticated principal.", userDetails.getId());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new MessageResponse("User not found."));
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_FOUND).body(new MessageResponse("User not found.")));
         }
         if (!appUser.isPlaidLinked() || appUser.getPlaidAccessToken() == null || appUser.getPlaidAccessToken().isEmpty()) {
             logger.warn("/income/paycheck_sources: User {} Plaid not linked or access token missing.", userDetails.getUsername());
-            return ResponseEntity.badRequest().body(new MessageResponse("Plaid account not linked or access token missing. Please link your bank account."));
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(new MessageResponse("Plaid account not linked or access token missing. Please link your bank account.")));
         }
 
+        CompletableFuture<List<PaycheckSourceDto>> paycheckSources;
         try {
-            String decryptedAccessToken = encryptionService.decrypt(appUser.getPlaidAccessToken());
-            List<PaycheckSourceDto> paycheckSources = plaidService.getRecurringIncome(decryptedAccessToken);
-            return ResponseEntity.ok(paycheckSources);
-        } catch (IOException e) {
-            logger.error("Error fetching paycheck sources for user {}: {}", appUser.getEmail(), e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new MessageResponse("Error fetching paycheck information: " + e.getMessage()));
+            paycheckSources = incomeStreamService.findPaycheckSources(appUser)
+                    .map(CompletableFuture::completedFuture)
+                    .orElseGet(() -> incomeRefreshService.refreshUserAsync(appUser));
         } catch (Exception e) { // Catch decryption or other errors
             logger.error("Error processing request for paycheck sources for user {}: {}", appUser.getEmail(), e.getMessage(), e);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new MessageResponse("Error processing request. Please try again.")));
+        }
+
+        return paycheckSources.<ResponseEntity<?>>handle((sources, ex) -> {
+            if (ex == null) {
+                return ResponseEntity.ok(sources);
+            }
+            Throwable cause = PlaidService.unwrapAsyncFailure(ex);
+            if (cause instanceof IOException) {
+                logger.error("Error fetching paycheck sources for user {}: {}", appUser.getEmail(), cause.getMessage(), cause);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(new MessageResponse("Error fetching paycheck information: " + cause.getMessage()));
+            }
+            logger.error("Error processing request for paycheck sources for user {}: {}", appUser.getEmail(), cause.getMessage(), cause);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new MessageResponse("Error processing request. Please try again."));
+        });
+    }
+
+    // Cheap enough to call on every screen load: one indexed query, and a matching If-None-Match gets a bodiless 304
+    @GetMapping("/paycheck_configurations")
+    public ResponseEntity<?> getPaycheckConfigurations(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (!(authentication.getPrincipal() instanceof UserDetailsImpl)) {
+            logger.warn("/income/paycheck_configurations: Authentication principal is not an instance of UserDetailsImpl.");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new MessageResponse("Invalid authentication details."));
+        }
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+
+        UserFinancialConfigService.PaycheckConfigs paycheckConfigs =
+                userFinancialConfigService.getPaycheckConfigurations(userDetails.getId());
+        // Revalidate on every use; the ETag makes that a 304 unless the configuration changed
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (etagMatches(ifNoneMatch, paycheckConfigs.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(paycheckConfigs.etag()).cacheControl(cacheControl).build();
         }
+        return ResponseEntity.ok().eTag(paycheckConfigs.etag()).cacheControl(cacheControl).body(paycheckConfigs.configs());
     }
 
     @PostMapping("/paycheck_configurations") // Changed endpoint name
@@ -111,4 +152,21 @@ public class IncomeController {
                     .body(new MessageResponse("Error saving paycheck configurations: " + e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    // If-None-Match may list several tags, use the weak form (proxies that compress add W/), or be "*"
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,10 +1,17 @@
 package com.investingapp.backend.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.investingapp.backend.dto.MessageResponse;
+import com.investingapp.backend.dto.PlaidWebhookEvent;
 import com.investingapp.backend.model.User;
 import com.investingapp.backend.repository.UserRepository;
 import com.investingapp.backend.security.services.UserDetailsImpl;
+import com.investingapp.backend.service.LinkTokenPool;
 import com.investingapp.backend.service.PlaidService;
+import com.investingapp.backend.service.PlaidWebhookDispatcher;
+import com.investingapp.backend.service.PlaidWebhookVerifier;
 import com.plaid.client.model.ItemPublicTokenExchangeResponse; // Make sure this is imported
 import com.plaid.client.model.LinkTokenCreateResponse;
 import org.slf4j.Logger;
@@ -16,10 +23,11 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
-import java.io.IOException;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
+// Plaid-backed endpoints return CompletableFutures: the Plaid call runs on OkHttp's dispatcher
+// and the Tomcat request thread is handed back while it is in flight.
 @CrossOrigin(origins = "*", maxAge = 3600) // For development, restrict in production
 @RestController
 @RequestMapping("/api/plaid")
@@ -33,28 +41,41 @@ public class PlaidController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private LinkTokenPool linkTokenPool;
+
+    @Autowired
+    private PlaidWebhookVerifier plaidWebhookVerifier;
+
+    @Autowired
+    private PlaidWebhookDispatcher plaidWebhookDispatcher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     // --- ANONYMOUS FLOW ENDPOINTS ---
 
     @PostMapping("/create_link_token_anonymous")
-    public ResponseEntity<?> createLinkTokenAnonymous() {
-        String temporaryUserId = "anon_" + UUID.randomUUID().toString();
-        logger.info("Request received for /create_link_token_anonymous. Generated temp ID: {}", temporaryUserId);
-        try {
-            LinkTokenCreateResponse response = plaidService.createLinkTokenAnonymous(temporaryUserId);
+    public CompletableFuture<ResponseEntity<?>> createLinkTokenAnonymous() {
+        // Usually served straight from the pre-warmed pool; the temp ID comes paired with the token
+        return linkTokenPool.takeAnonymousAsync().<ResponseEntity<?>>handle((token, ex) -> {
+            if (ex != null) {
+                Throwable cause = PlaidService.unwrapAsyncFailure(ex);
+                logger.error("Error creating anonymous Plaid link token: {}", cause.getMessage(), cause);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(new MessageResponse("Error creating Plaid link token: " + cause.getMessage()));
+            }
+            logger.info("Request received for /create_link_token_anonymous. Issued temp ID: {}", token.temporaryUserId());
             return ResponseEntity.ok(Map.of(
-                    "link_token", response.getLinkToken(),
-                    "expiration", response.getExpiration().toString(), // Ensure toString if not already string
-                    "temporary_user_id", temporaryUserId
+                    "link_token", token.linkToken(),
+                    "expiration", token.expiration().toString(), // Ensure toString if not already string
+                    "temporary_user_id", token.temporaryUserId()
             ));
-        } catch (IOException e) {
-            logger.error("Error creating anonymous Plaid link token: {}", e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new MessageResponse("Error creating Plaid link token: " + e.getMessage()));
-        }
+        });
     }
 
     @PostMapping("/exchange_public_token_anonymous")
-    public ResponseEntity<?> exchangePublicTokenAnonymous(@RequestBody Map<String, String> payload) {
+    public CompletableFuture<ResponseEntity<?>> exchangePublicTokenAnonymous(@RequestBody Map<String, String> payload) {
         String publicToken = payload.get("public_token");
         String temporaryUserId = payload.get("temporary_user_id");
         logger.info("Request received for /exchange_public_token_anonymous. Temp ID: {}", temporaryUserId);
@@ -62,51 +83,54 @@ public class PlaidController {
 
         if (publicToken == null || publicToken.isEmpty() || temporaryUserId == null || temporaryUserId.isEmpty()) {
             logger.warn("/exchange_public_token_anonymous: Missing public_token or temporary_user_id");
-            return ResponseEntity.badRequest().body(new MessageResponse("public_token and temporary_user_id are required"));
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(new MessageResponse("public_token and temporary_user_id are required")));
         }
 
-        try {
-            plaidService.exchangePublicTokenAndStoreTemporarily(publicToken, temporaryUserId);
+        return plaidService.exchangePublicTokenAndStoreTemporarilyAsync(publicToken, temporaryUserId).<ResponseEntity<?>>handle((ignored, ex) -> {
+            if (ex != null) {
+                Throwable cause = PlaidService.unwrapAsyncFailure(ex);
+                logger.error("Error exchanging anonymous Plaid public token for temp ID {}: {}", temporaryUserId, cause.getMessage(), cause);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(new MessageResponse("Error exchanging Plaid public token: " + cause.getMessage()));
+            }
             return ResponseEntity.ok(new MessageResponse("Plaid connection pending account creation. Please create or link your account."));
-        } catch (IOException e) {
-            logger.error("Error exchanging anonymous Plaid public token for temp ID {}: {}", temporaryUserId, e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new MessageResponse("Error exchanging Plaid public token: " + e.getMessage()));
-        }
+        });
     }
 
     // --- AUTHENTICATED FLOW ENDPOINTS ---
 
     @PostMapping("/create_link_token") // No suffix, implies authenticated
-    public ResponseEntity<?> createLinkTokenAuthenticated() {
+    public CompletableFuture<ResponseEntity<?>> createLinkTokenAuthenticated() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !authentication.isAuthenticated() || !(authentication.getPrincipal() instanceof UserDetailsImpl)) {
             logger.warn("/create_link_token: User not authenticated properly.");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new MessageResponse("User not authenticated"));
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new MessageResponse("User not authenticated")));
         }
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
         String clientUserId = String.valueOf(userDetails.getId()); // Use your app's internal user ID
         logger.info("Request received for /create_link_token (authenticated). User ID: {}", clientUserId);
 
-        try {
-            LinkTokenCreateResponse response = plaidService.createLinkTokenForAuthenticatedUser(clientUserId);
+        // Repeated requests from the same user reuse their unexpired token instead of calling Plaid again
+        return linkTokenPool.getAuthenticatedAsync(clientUserId).<ResponseEntity<?>>handle((response, ex) -> {
+            if (ex != null) {
+                Throwable cause = PlaidService.unwrapAsyncFailure(ex);
+                logger.error("Error creating Plaid link token for authenticated user {}: {}", clientUserId, cause.getMessage(), cause);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(new MessageResponse("Error creating Plaid link token: " + cause.getMessage()));
+            }
             return ResponseEntity.ok(Map.of(
                     "link_token", response.getLinkToken(),
                     "expiration", response.getExpiration().toString() // Ensure toString
             ));
-        } catch (IOException e) {
-            logger.error("Error creating Plaid link token for authenticated user {}: {}", clientUserId, e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new MessageResponse("Error creating Plaid link token: " + e.getMessage()));
-        }
+        });
     }
 
     @PostMapping("/exchange_public_token") // No suffix, implies authenticated
-    public ResponseEntity<?> exchangePublicTokenAuthenticated(@RequestBody Map<String, String> payload) {
+    public CompletableFuture<ResponseEntity<?>> exchangePublicTokenAuthenticated(@RequestBody Map<String, String> payload) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !authentication.isAuthenticated() || !(authentication.getPrincipal() instanceof UserDetailsImpl)) {
             logger.warn("/exchange_public_token: User not authenticated properly.");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new MessageResponse("User not authenticated"));
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new MessageResponse("User not authenticated")));
         }
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
         User appUser = userRepository.findById(userDetails.getId())
@@ -114,26 +138,58 @@ public class PlaidController {
 
         if (appUser == null) {
             logger.error("/exchange_public_token: Authenticated user ID {} not found in database.", userDetails.getId());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new MessageResponse("User not found in database"));
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_FOUND).body(new MessageResponse("User not found in database")));
         }
         logger.info("Request received for /exchange_public_token (authenticated). User ID: {}", appUser.getId());
 
         String publicToken = payload.get("public_token");
         if (publicToken == null || publicToken.isEmpty()) {
             logger.warn("/exchange_public_token: public_token is required for user ID {}.", appUser.getId());
-            return ResponseEntity.badRequest().body(new MessageResponse("public_token is required"));
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(new MessageResponse("public_token is required")));
         }
 
+        // This service method directly links to the authenticated appUser
+        // The service method already updates the user and saves.
+        return plaidService.exchangePublicTokenAndLinkUserAsync(publicToken, appUser).<ResponseEntity<?>>handle((plaidResponse, ex) -> {
+            if (ex != null) {
+                Throwable cause = PlaidService.unwrapAsyncFailure(ex);
+                logger.error("Error exchanging Plaid public token for user {}: {}", appUser.getId(), cause.getMessage(), cause);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(new MessageResponse("Error exchanging Plaid public token: " + cause.getMessage()));
+            }
+            linkTokenPool.invalidateAuthenticated(String.valueOf(appUser.getId()));
+            return ResponseEntity.ok(new MessageResponse("Plaid public token exchanged successfully and linked to user."));
+        });
+    }
+
+    // --- WEBHOOKS ---
+
+    // Verifies, enqueues and acknowledges; the actual work happens on PlaidWebhookDispatcher's workers.
+    // The raw body is taken as a String because the verification JWT signs its exact bytes.
+    @PostMapping("/webhook")
+    public ResponseEntity<?> receiveWebhook(@RequestBody String rawBody,
+                                            @RequestHeader(value = "Plaid-Verification", required = false) String verificationJwt) {
+        if (!plaidWebhookVerifier.verify(rawBody, verificationJwt)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new MessageResponse("Webhook verification failed"));
+        }
+
+        PlaidWebhookEvent event;
         try {
-            // This service method directly links to the authenticated appUser
-            ItemPublicTokenExchangeResponse plaidResponse = plaidService.exchangePublicTokenAndLinkUser(publicToken, appUser);
-            // The service method already updates the user and saves.
+            JsonNode payload = objectMapper.readTree(rawBody);
+            event = new PlaidWebhookEvent(
+                    payload.path("webhook_type").asText(null),
+                    payload.path("webhook_code").asText(null),
+                    payload.path("item_id").asText(null),
+                    payload.path("error").path("error_code").asText(null));
+        } catch (JsonProcessingException e) {
+            logger.warn("/webhook: Unparseable Plaid webhook body: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new MessageResponse("Invalid webhook payload"));
+        }
 
-            return ResponseEntity.ok(new MessageResponse("Plaid public token exchanged successfully and linked to user."));
-        } catch (IOException e) {
-            logger.error("Error exchanging Plaid public token for user {}: {}", appUser.getId(), e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new MessageResponse("Error exchanging Plaid public token: " + e.getMessage()));
+        if (!plaidWebhookDispatcher.submit(event)) {
+            // Plaid retries non-200 responses, so shedding load here just defers the work
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(new MessageResponse("Webhook queue full, retry later"));
         }
+        return ResponseEntity.ok(new MessageResponse("Webhook accepted"));
     }
-}
\ No newline at end of file
+}
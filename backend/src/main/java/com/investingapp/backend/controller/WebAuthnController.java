@@ -2,7 +2,6 @@
 package com.investingapp.backend.controller;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.github.benmanes.caffeine.cache.Cache;
 
 // imports below are for simulating passkey
 import com.investingapp.backend.model.User;
@@ -14,13 +13,21 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.investingapp.backend.repository.UserRepository;  // Your UserRepository interface
 import org.springframework.security.core.userdetails.UserDetailsService;
 import com.investingapp.backend.security.jwt.JwtUtils;  // Your JWT helper class
+import com.investingapp.backend.security.services.UserDetailsImpl;
 
+import com.investingapp.backend.dto.AssertionFinishRequest;
+import com.investingapp.backend.dto.AssertionStartRequest;
+import com.investingapp.backend.dto.AssertionStartResponse;
+import com.investingapp.backend.dto.JwtResponse;
+import com.investingapp.backend.dto.MessageResponse;
 import com.investingapp.backend.dto.RegistrationFinishRequest;
 import com.investingapp.backend.dto.RegistrationFinishResponse; // <-- IMPORT YOUR DTO
 import com.investingapp.backend.dto.RegistrationStartRequest;
 import com.investingapp.backend.dto.RegistrationStartResponse;
+import com.investingapp.backend.service.ChallengeStore;
+import com.investingapp.backend.service.RefreshTokenService;
 import com.investingapp.backend.service.WebAuthnService;
-import com.yubico.webauthn.data.PublicKeyCredentialCreationOptions;
+import com.yubico.webauthn.AssertionRequest;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -31,6 +38,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Optional;
+import java.util.UUID;
+
 @RestController
 @RequestMapping("/api/passkey")
 @CrossOrigin(origins = "*")
@@ -38,8 +48,15 @@ public class WebAuthnController {
 
     private static final Logger logger = LoggerFactory.getLogger(WebAuthnController.class);
 
+    // Keys in the challenge store: registrations by email, sign-ins by the request ID given out by /login/start
+    private static final String REGISTRATION_KEY_PREFIX = "register:";
+    private static final String ASSERTION_KEY_PREFIX = "login:";
+
+    private static final String EXISTING_ACCOUNT_MESSAGE =
+            "An account already exists for this email. Sign in to add a passkey to it.";
+
     private final WebAuthnService webAuthnService;
-    private final Cache<String, PublicKeyCredentialCreationOptions> challengeCache;
+    private final ChallengeStore challengeStore;
 
     // these 3 injections are needed for simulating passkey registration
     @Autowired
@@ -51,11 +68,14 @@ public class WebAuthnController {
     @Autowired
     private JwtUtils jwtUtils; // Your JWT utility/service class
 
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
     @Autowired
     public WebAuthnController(WebAuthnService webAuthnService,
-            Cache<String, PublicKeyCredentialCreationOptions> challengeCache) {
+            ChallengeStore challengeStore) {
         this.webAuthnService = webAuthnService;
-        this.challengeCache = challengeCache;
+        this.challengeStore = challengeStore;
     }
 
     @PostMapping("/register/start")
@@ -66,12 +86,18 @@ public class WebAuthnController {
         String origin = request.getHeader("Origin");
         logger.info("Received request from ORIGIN: {}", origin);
         try {
-            PublicKeyCredentialCreationOptions options = webAuthnService.startRegistrationFlow(
+            Optional<WebAuthnService.PendingRegistration> started = webAuthnService.startRegistrationFlow(
                     registrationRequest.getEmail(),
-                    registrationRequest.getTemporaryUserId());
-            challengeCache.put(registrationRequest.getEmail(), options);
-            logger.info("Registration options stored in cache for user: {}", registrationRequest.getEmail());
-            return ResponseEntity.ok(new RegistrationStartResponse(options.toJson()));
+                    registrationRequest.getTemporaryUserId(),
+                    authenticatedUserId());
+            if (started.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(new MessageResponse(EXISTING_ACCOUNT_MESSAGE));
+            }
+            WebAuthnService.PendingRegistration pendingRegistration = started.get();
+            challengeStore.put(REGISTRATION_KEY_PREFIX + registrationRequest.getEmail(), webAuthnService.encodeRegistration(pendingRegistration));
+            logger.info("Registration options stored for user: {}", registrationRequest.getEmail());
+            return ResponseEntity.ok(new RegistrationStartResponse(pendingRegistration.options().toJson()));
         } catch (JsonProcessingException e) {
             logger.error("Failed to serialize options to JSON for user: {}", registrationRequest.getEmail(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -95,6 +121,11 @@ public class WebAuthnController {
             if (user == null) {
                 user = new User(email); // Make sure constructor and fields fit your model
                 userRepository.save(user);
+            } else if (!user.getId().equals(authenticatedUserId())) {
+                // Same rule as a real registration: no tokens for someone else's account
+                logger.warn("SIMULATED passkey registration refused for existing account: {}", email);
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(new RegistrationFinishResponse(false, EXISTING_ACCOUNT_MESSAGE, null, null, email));
             }
 
             UserDetails userDetails = userDetailsService.loadUserByUsername(email);
@@ -102,20 +133,23 @@ public class WebAuthnController {
                     userDetails, null, userDetails.getAuthorities());
             SecurityContextHolder.getContext().setAuthentication(authentication);
 
-            String jwt = jwtUtils.generateJwtToken(authentication);
+            RefreshTokenService.IssuedTokens tokens = refreshTokenService.issue((UserDetailsImpl) userDetails);
 
             return ResponseEntity.ok(new RegistrationFinishResponse(
                     true,
                     "Simulated registration success.",
-                    jwt,
+                    tokens.accessToken(),
                     user.getId(),
-                    user.getEmail()));
+                    user.getEmail(),
+                    tokens.refreshToken()));
         }
 
-        PublicKeyCredentialCreationOptions options = challengeCache.getIfPresent(email);
-        challengeCache.invalidate(email); // Invalidate immediately
+        // Taking it consumes it, so a challenge can't be replayed
+        WebAuthnService.PendingRegistration pendingRegistration = challengeStore.take(REGISTRATION_KEY_PREFIX + email)
+                .map(encoded -> webAuthnService.restoreRegistration(email, encoded))
+                .orElse(null);
 
-        if (options == null) {
+        if (pendingRegistration == null) {
             logger.warn("No registration challenge found or challenge expired for email: {}", email);
             RegistrationFinishResponse errorResponse = new RegistrationFinishResponse(
                     false,
@@ -127,8 +161,8 @@ public class WebAuthnController {
         RegistrationFinishResponse serviceResponse = webAuthnService.finishRegistrationFlow(
                 finishRequest.getEmail(),
                 finishRequest.getCredential(),
-                finishRequest.getTemporaryUserId(),
-                options);
+                pendingRegistration,
+                authenticatedUserId());
 
         if (serviceResponse.isSuccess()) {
             logger.info("Passkey registration and login successful for: {}", email);
@@ -140,4 +174,49 @@ public class WebAuthnController {
             return ResponseEntity.badRequest().body(serviceResponse);
         }
     }
-}
\ No newline at end of file
+
+    @PostMapping("/login/start")
+    public ResponseEntity<?> startLogin(@Valid @RequestBody AssertionStartRequest loginRequest) {
+        try {
+            AssertionRequest assertionRequest = webAuthnService.startAssertionFlow(loginRequest.getEmail());
+            String requestId = UUID.randomUUID().toString();
+            challengeStore.put(ASSERTION_KEY_PREFIX + requestId, webAuthnService.encodeAssertion(assertionRequest));
+            return ResponseEntity.ok(new AssertionStartResponse(requestId, assertionRequest.toCredentialsGetJson()));
+        } catch (JsonProcessingException e) {
+            logger.error("Failed to serialize assertion options to JSON for email: {}", loginRequest.getEmail(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new MessageResponse("Error generating sign-in options."));
+        }
+    }
+
+    @PostMapping("/login/finish")
+    public ResponseEntity<?> finishLogin(@Valid @RequestBody AssertionFinishRequest finishRequest) {
+        // Single use: a challenge is consumed by the first attempt, successful or not
+        AssertionRequest assertionRequest = challengeStore.take(ASSERTION_KEY_PREFIX + finishRequest.getRequestId())
+                .map(webAuthnService::restoreAssertion)
+                .orElse(null);
+        if (assertionRequest == null) {
+            logger.warn("No sign-in challenge found or challenge expired for request: {}", finishRequest.getRequestId());
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("No sign-in challenge found or challenge expired. Please start over."));
+        }
+
+        Optional<RefreshTokenService.IssuedTokens> tokens =
+                webAuthnService.finishAssertionFlow(assertionRequest, finishRequest.getCredential());
+        if (tokens.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new MessageResponse("Passkey sign-in failed."));
+        }
+        UserDetailsImpl principal = tokens.get().principal();
+        return ResponseEntity.ok(new JwtResponse(
+                tokens.get().accessToken(), tokens.get().refreshToken(), principal.getId(), principal.getUsername()));
+    }
+
+    // /api/passkey/** is open to anonymous clients; a valid JWT, if sent, still authenticates the request
+    private static Long authenticatedUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || !(authentication.getPrincipal() instanceof UserDetailsImpl)) {
+            return null;
+        }
+        return ((UserDetailsImpl) authentication.getPrincipal()).getId();
+    }
+}
@@ -0,0 +1,17 @@
+package com.investingapp.backend.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class AssertionFinishRequest {
+
+    @NotBlank(message = "Request ID cannot be blank")
+    private String requestId;
+
+    // The PublicKeyCredential returned by navigator.credentials.get()
+    @NotNull(message = "Credential object cannot be null")
+    private JsonNode credential;
+}
@@ -0,0 +1,12 @@
+package com.investingapp.backend.dto;
+
+import jakarta.validation.constraints.Email;
+import lombok.Data;
+
+@Data
+public class AssertionStartRequest {
+
+    // Optional: without it the client is offered any discoverable passkey for this site
+    @Email(message = "Email should be valid")
+    private String email;
+}
@@ -0,0 +1,17 @@
+package com.investingapp.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssertionStartResponse {
+
+    // Identifies the pending assertion; send it back with the signed credential to /login/finish
+    private String requestId;
+
+    // JSON for navigator.credentials.get(), i.e. {"publicKey": PublicKeyCredentialRequestOptions}
+    private String options;
+}
@@ -7,6 +7,7 @@ import java.util.List;
 @Data
 public class JwtResponse {
     private String token;
+    private String refreshToken; // Opaque, single-use; exchange at /api/auth/refresh when the access token expires
     private String type = "Bearer";
     private Long id;
     private String email;
@@ -18,4 +19,9 @@ public class JwtResponse {
         this.email = email;
         // this.roles = roles;
     }
+
+    public JwtResponse(String accessToken, String refreshToken, Long id, String email) {
+        this(accessToken, id, email);
+        this.refreshToken = refreshToken;
+    }
 }
\ No newline at end of file
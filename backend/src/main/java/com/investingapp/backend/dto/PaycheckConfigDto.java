@@ -0,0 +1,17 @@
+// src/main/java/com/investingapp/backend/dto/PaycheckConfigDto.java
+package com.investingapp.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+// Read model of a saved user_paycheck_configs row; built directly by a JPQL constructor projection
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaycheckConfigDto {
+    private String accountId;
+    private String name;
+    private BigDecimal withdrawalPercentage; // 0.0 to 1.0
+}
@@ -0,0 +1,17 @@
+// src/main/java/com/investingapp/backend/dto/PlaidWebhookEvent.java
+package com.investingapp.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// The parts of a Plaid webhook payload the dispatcher cares about
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlaidWebhookEvent {
+    private String webhookType; // e.g., "TRANSACTIONS", "ITEM"
+    private String webhookCode; // e.g., "SYNC_UPDATES_AVAILABLE", "RECURRING_TRANSACTIONS_UPDATE", "ERROR"
+    private String itemId;
+    private String errorCode; // Only set for ITEM ERROR webhooks, e.g., "ITEM_LOGIN_REQUIRED"
+}
@@ -13,4 +13,9 @@ public class RegistrationFinishResponse {
     private String jwtToken;
     private Long userId; // Or String, depending on your User ID type
     private String email;
+    private String refreshToken;
+
+    public RegistrationFinishResponse(boolean success, String message, String jwtToken, Long userId, String email) {
+        this(success, message, jwtToken, userId, email, null);
+    }
 }
@@ -0,0 +1,18 @@
+// src/main/java/com/investingapp/backend/dto/StoredCredentialDto.java
+package com.investingapp.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// What the RelyingParty needs of a passkey_credentials row, with the owner's user handle joined in.
+// Built directly by a JPQL constructor projection; values are Base64URL as stored.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredCredentialDto {
+    private String externalId;
+    private String userHandle;
+    private String publicKeyCose;
+    private Long signatureCount;
+}
@@ -0,0 +1,11 @@
+// src/main/java/com/investingapp/backend/dto/TokenRefreshRequest.java
+package com.investingapp.backend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class TokenRefreshRequest {
+    @NotBlank
+    private String refreshToken;
+}
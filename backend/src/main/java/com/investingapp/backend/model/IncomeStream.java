@@ -0,0 +1,45 @@
+// src/main/java/com/investingapp/backend/model/IncomeStream.java
+package com.investingapp.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Last known recurring income streams per user, written by the background refresh and read by /api/income
+@Entity
+@Table(name = "income_streams", indexes = {
+        @Index(name = "idx_income_streams_user_id", columnList = "user_id")
+})
+@Data
+@NoArgsConstructor
+public class IncomeStream {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(nullable = false, length = 255)
+    private String accountId; // Plaid account_id the deposits land in
+
+    @Column(length = 255)
+    private String name;
+
+    @Column(precision = 19, scale = 2)
+    private BigDecimal lastAmount;
+
+    @Column(length = 20)
+    private String lastDate; // ISO 8601, as returned to the client
+
+    @Column(length = 30)
+    private String frequency;
+
+    @Column(nullable = false)
+    private LocalDateTime refreshedDate;
+}
@@ -1,18 +1,22 @@
 // src/main/java/com/investingapp/backend/model/PasskeyCredential.java
 package com.investingapp.backend.model;
 
+import com.investingapp.backend.config.HibernateCacheConfig;
 import com.yubico.webauthn.data.ByteArray; // Yubico's ByteArray
 import com.yubico.webauthn.data.exception.Base64UrlException;
 
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "passkey_credentials")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.PASSKEY_CREDENTIAL_REGION)
 @Data
 @NoArgsConstructor
 public class PasskeyCredential {
@@ -10,7 +10,10 @@ import java.time.LocalDateTime;
 import java.util.concurrent.TimeUnit;
 
 @Entity
-@Table(name = "pending_plaid_connections")
+@Table(name = "pending_plaid_connections", indexes = {
+        @Index(name = "idx_pending_plaid_temp_user_status", columnList = "temporary_user_id, status"), // Claim lookup
+        @Index(name = "idx_pending_plaid_expire_status", columnList = "expire_date, status") // Expiry sweeper
+})
 @Data
 @NoArgsConstructor
 public class PendingPlaidConnection {
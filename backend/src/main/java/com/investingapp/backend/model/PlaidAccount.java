@@ -0,0 +1,59 @@
+// src/main/java/com/investingapp/backend/model/PlaidAccount.java
+package com.investingapp.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+// Local copy of Plaid's /accounts/get result, so income lookups don't need that round trip every time
+@Entity
+@Table(name = "plaid_accounts", indexes = {
+        @Index(name = "idx_plaid_accounts_item_id", columnList = "plaid_item_id")
+})
+@Data
+@NoArgsConstructor
+public class PlaidAccount {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 255)
+    private String plaidItemId;
+
+    @Column(nullable = false, unique = true, length = 255)
+    private String accountId; // Plaid account_id
+
+    @Column(length = 255)
+    private String name;
+
+    @Column(length = 255)
+    private String officialName;
+
+    @Column(length = 16)
+    private String mask; // Last 2-4 digits of the account number
+
+    @Column(length = 50)
+    private String type; // e.g., "depository"
+
+    @Column(length = 50)
+    private String subtype; // e.g., "checking"
+
+    @CreationTimestamp
+    private LocalDateTime createDate;
+
+    @UpdateTimestamp
+    private LocalDateTime updateDate;
+
+    @Column(nullable = false)
+    private LocalDateTime lastSyncedDate; // Set on every /accounts/get sync, even when nothing changed
+
+    public PlaidAccount(String plaidItemId, String accountId) {
+        this.plaidItemId = plaidItemId;
+        this.accountId = accountId;
+    }
+}
@@ -0,0 +1,30 @@
+// src/main/java/com/investingapp/backend/model/RefreshLease.java
+package com.investingapp.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One row per background-job partition. A node owns a partition while leaseUntil is in the future;
+// completedDate records when the partition was last fully processed so other nodes skip it until it is due.
+@Entity
+@Table(name = "refresh_leases")
+@Data
+@NoArgsConstructor
+public class RefreshLease {
+
+    @Id
+    @Column(length = 64)
+    private String id; // e.g. "income:3", "reencrypt:users:v2"
+
+    @Column(length = 128)
+    private String owner;
+
+    private LocalDateTime leaseUntil;
+
+    private LocalDateTime completedDate;
+
+    private Long checkpoint; // Resumable jobs: last row id fully processed, so a new owner continues from there
+}
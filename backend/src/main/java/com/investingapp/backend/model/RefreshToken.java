@@ -0,0 +1,55 @@
+// src/main/java/com/investingapp/backend/model/RefreshToken.java
+package com.investingapp.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+// Rotating refresh tokens. Only a SHA-256 hash of the token is stored. Every rotation issues a new row in the
+// same family; presenting an already-rotated token revokes the whole family (token theft detection).
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_family_id", columnList = "family_id"),
+        @Index(name = "idx_refresh_tokens_user_id", columnList = "user_id")
+})
+@Data
+@NoArgsConstructor
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String tokenHash; // Hex SHA-256 of the opaque token handed to the client
+
+    @Column(nullable = false, length = 36)
+    private String familyId; // Shared by every token descended from one login
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createDate;
+
+    @Column(nullable = false)
+    private LocalDateTime expireDate;
+
+    private LocalDateTime revokedDate; // Set when rotated, logged out or revoked with its family
+
+    @Column(length = 36)
+    private String accessJti; // jti of the access token issued alongside, revoked with the family on reuse
+
+    public RefreshToken(User user, String tokenHash, String familyId, LocalDateTime expireDate, String accessJti) {
+        this.user = user;
+        this.tokenHash = tokenHash;
+        this.familyId = familyId;
+        this.expireDate = expireDate;
+        this.accessJti = accessJti;
+    }
+}
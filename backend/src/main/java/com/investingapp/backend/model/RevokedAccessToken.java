@@ -0,0 +1,28 @@
+// src/main/java/com/investingapp/backend/model/RevokedAccessToken.java
+package com.investingapp.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Revoked access token IDs (jti), kept only until the token would have expired anyway.
+// Source of truth for TokenRevocationService's in-memory set, which every node syncs periodically.
+@Entity
+@Table(name = "revoked_access_tokens", indexes = {
+        @Index(name = "idx_revoked_access_tokens_expire_date", columnList = "expire_date")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedAccessToken {
+
+    @Id
+    @Column(length = 36)
+    private String jti;
+
+    @Column(nullable = false)
+    private LocalDateTime expireDate;
+}
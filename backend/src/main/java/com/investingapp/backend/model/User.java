@@ -1,13 +1,20 @@
 // src/main/java/com/investingapp/backend/model/User.java
 package com.investingapp.backend.model;
 
+import com.investingapp.backend.config.HibernateCacheConfig;
+import com.investingapp.backend.security.services.UserCacheInvalidationListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -17,7 +24,13 @@ import java.util.Set;   // Import Set
 @Entity
 @Table(name = "users", uniqueConstraints = {
         @UniqueConstraint(columnNames = "email")
+}, indexes = {
+        @Index(name = "idx_users_plaid_linked_id", columnList = "plaid_linked, id") // Keyset scans of linked users
 })
+@EntityListeners(UserCacheInvalidationListener.class) // Keeps AuthTokenFilter's principal cache in sync
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.USER_REGION)
+@NaturalIdCache(region = HibernateCacheConfig.USER_EMAIL_REGION)
+@DynamicUpdate // UPDATEs write only changed columns, so background writes can't clobber a concurrent change
 @Data
 @NoArgsConstructor
 public class User {
@@ -38,6 +51,7 @@ public class User {
     @Email(message = "Email should be valid")
     @Size(max = 100)
     @Column(unique = true, nullable = false)
+    @NaturalId // Set once at creation; lets findByEmail resolve through the second-level cache
     private String email; // Primary identifier
 
     // @NotBlank // No longer needed if no password
@@ -50,6 +64,7 @@ public class User {
     private String userHandle; // Store as Base64URL encoded string
 
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.USER_CREDENTIALS_REGION)
     private Set<PasskeyCredential> passkeyCredentials = new HashSet<>();
 
     // Plaid specific fields
@@ -67,6 +82,9 @@ public class User {
     private boolean stockSelectionCompleted = false;
     private boolean investmentConfirmationCompleted = false;
 
+    // Last time the background job stored this user's income streams; null until the first refresh
+    private LocalDateTime incomeRefreshedDate;
+
     @CreationTimestamp // Automatically set by Hibernate on creation
     private LocalDateTime createDate;
 
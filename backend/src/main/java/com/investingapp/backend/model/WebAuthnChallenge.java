@@ -0,0 +1,33 @@
+// src/main/java/com/investingapp/backend/model/WebAuthnChallenge.java
+package com.investingapp.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Pending WebAuthn challenges for JdbcChallengeStore, shared by all nodes. Mapped only so the table is created
+// with the schema; rows are read and written with plain JDBC.
+@Entity
+@Table(name = "webauthn_challenges", indexes = {
+        @Index(name = "idx_webauthn_challenges_expire_date", columnList = "expire_date")
+})
+@Data
+@NoArgsConstructor
+public class WebAuthnChallenge {
+
+    @Id
+    @Column(length = 320) // Kind prefix plus an email address or request ID
+    private String challengeKey;
+
+    @Column(nullable = false, length = 512) // Compact encoding from WebAuthnService, well under 512 bytes
+    private byte[] payload;
+
+    // Random per put; a take only deletes the row version it read
+    @Column(nullable = false)
+    private Long nonce;
+
+    @Column(nullable = false)
+    private LocalDateTime expireDate;
+}
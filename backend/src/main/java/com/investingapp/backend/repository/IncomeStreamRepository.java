@@ -0,0 +1,21 @@
+// src/main/java/com/investingapp/backend/repository/IncomeStreamRepository.java
+package com.investingapp.backend.repository;
+
+import com.investingapp.backend.model.IncomeStream;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface IncomeStreamRepository extends JpaRepository<IncomeStream, Long> {
+    List<IncomeStream> findAllByUser_IdOrderByIdAsc(Long userId);
+
+    // Bulk delete: one statement instead of loading each row first
+    @Modifying
+    @Query("DELETE FROM IncomeStream s WHERE s.user.id = :userId")
+    int deleteAllByUserId(@Param("userId") Long userId);
+}
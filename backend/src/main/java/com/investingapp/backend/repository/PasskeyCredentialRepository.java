@@ -1,9 +1,12 @@
 // src/main/java/com/investingapp/backend/repository/PasskeyCredentialRepository.java
 package com.investingapp.backend.repository;
 
+import com.investingapp.backend.dto.StoredCredentialDto;
 import com.investingapp.backend.model.PasskeyCredential;
 import com.investingapp.backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,4 +17,13 @@ public interface PasskeyCredentialRepository extends JpaRepository<PasskeyCreden
     Optional<PasskeyCredential> findByExternalId(String externalId);
     List<PasskeyCredential> findAllByUser(User user);
     List<PasskeyCredential> findAllByUser_UserHandle(String userHandle); // Find by user's WebAuthn handle
+
+    // Credential plus its owner's user handle in one query, instead of loading the lazy user afterwards
+    @Query("SELECT new com.investingapp.backend.dto.StoredCredentialDto(c.externalId, u.userHandle, c.publicKeyCose, c.signatureCount) " +
+            "FROM PasskeyCredential c JOIN c.user u WHERE c.externalId = :externalId")
+    Optional<StoredCredentialDto> findStoredCredentialByExternalId(@Param("externalId") String externalId);
+
+    // Credential IDs of the user with this email, without loading the user or credential entities
+    @Query("SELECT c.externalId FROM PasskeyCredential c JOIN c.user u WHERE u.email = :email")
+    List<String> findExternalIdsByUserEmail(@Param("email") String email);
 }
\ No newline at end of file
@@ -2,8 +2,15 @@
 package com.investingapp.backend.repository;
 
 import com.investingapp.backend.model.PendingPlaidConnection;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -25,4 +32,21 @@ public interface PendingPlaidConnectionRepository extends JpaRepository<PendingP
 
     // Optional: For cleanup
     void deleteAllByExpireDateBefore(LocalDateTime expiryThreshold);
+
+    // Chunked variants used by PendingPlaidConnectionSweeper. Each call is its own short transaction touching
+    // at most `limit` rows (MySQL UPDATE/DELETE ... LIMIT), so a large backlog never holds locks for long.
+    // The query space keeps Hibernate from clearing every second-level cache region after each chunk.
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_NATIVE_SPACES, value = "pending_plaid_connections"))
+    @Query(value = "UPDATE pending_plaid_connections SET status = 'EXPIRED' " +
+            "WHERE expire_date < :now AND status = 'PENDING_ACCOUNT_CREATION' LIMIT :limit", nativeQuery = true)
+    int expirePendingChunk(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_NATIVE_SPACES, value = "pending_plaid_connections"))
+    @Query(value = "DELETE FROM pending_plaid_connections " +
+            "WHERE expire_date < :purgeBefore AND status IN ('EXPIRED', 'CLAIMED') LIMIT :limit", nativeQuery = true)
+    int purgeChunk(@Param("purgeBefore") LocalDateTime purgeBefore, @Param("limit") int limit);
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+// src/main/java/com/investingapp/backend/repository/PlaidAccountRepository.java
+package com.investingapp.backend.repository;
+
+import com.investingapp.backend.model.PlaidAccount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PlaidAccountRepository extends JpaRepository<PlaidAccount, Long> {
+    List<PlaidAccount> findAllByPlaidItemId(String plaidItemId);
+    void deleteAllByPlaidItemId(String plaidItemId); // When an item is replaced by a re-link
+}
@@ -0,0 +1,63 @@
+// src/main/java/com/investingapp/backend/repository/RefreshLeaseRepository.java
+package com.investingapp.backend.repository;
+
+import com.investingapp.backend.model.RefreshLease;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+// Each update is a single conditional statement, so two nodes racing for the same lease can't both win
+@Repository
+public interface RefreshLeaseRepository extends JpaRepository<RefreshLease, String> {
+
+    // INSERT IGNORE rather than save(): save() would merge over a row another node just created and leased.
+    // Native DML without a query space makes Hibernate clear every second-level cache region; naming the
+    // table limits that to regions backed by it (none).
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_NATIVE_SPACES, value = "refresh_leases"))
+    @Query(value = "INSERT IGNORE INTO refresh_leases (id) VALUES (:id)", nativeQuery = true)
+    int insertIfMissing(@Param("id") String id);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE RefreshLease l SET l.owner = :owner, l.leaseUntil = :leaseUntil " +
+            "WHERE l.id = :id AND (l.leaseUntil IS NULL OR l.leaseUntil < :now) " +
+            "AND (l.completedDate IS NULL OR l.completedDate < :dueBefore)")
+    int tryAcquire(@Param("id") String id,
+                   @Param("owner") String owner,
+                   @Param("now") LocalDateTime now,
+                   @Param("leaseUntil") LocalDateTime leaseUntil,
+                   @Param("dueBefore") LocalDateTime dueBefore);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE RefreshLease l SET l.leaseUntil = :leaseUntil WHERE l.id = :id AND l.owner = :owner")
+    int renew(@Param("id") String id, @Param("owner") String owner, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    // Records progress and extends the lease in one statement; 0 means the lease was lost
+    @Transactional
+    @Modifying
+    @Query("UPDATE RefreshLease l SET l.checkpoint = :checkpoint, l.leaseUntil = :leaseUntil WHERE l.id = :id AND l.owner = :owner")
+    int checkpoint(@Param("id") String id, @Param("owner") String owner,
+                   @Param("checkpoint") Long checkpoint, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE RefreshLease l SET l.completedDate = :completedDate, l.leaseUntil = NULL WHERE l.id = :id AND l.owner = :owner")
+    int complete(@Param("id") String id, @Param("owner") String owner, @Param("completedDate") LocalDateTime completedDate);
+
+    // Gives the partition back without marking it done, e.g. when a run is aborted
+    @Transactional
+    @Modifying
+    @Query("UPDATE RefreshLease l SET l.leaseUntil = NULL WHERE l.id = :id AND l.owner = :owner")
+    int release(@Param("id") String id, @Param("owner") String owner);
+}
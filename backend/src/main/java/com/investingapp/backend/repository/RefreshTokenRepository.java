@@ -0,0 +1,35 @@
+// src/main/java/com/investingapp/backend/repository/RefreshTokenRepository.java
+package com.investingapp.backend.repository;
+
+import com.investingapp.backend.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    // Conditional: only one of two concurrent refreshes with the same token can win the rotation
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revokedDate = :now WHERE t.id = :id AND t.revokedDate IS NULL")
+    int markRotated(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Query("SELECT t.accessJti FROM RefreshToken t WHERE t.familyId = :familyId AND t.accessJti IS NOT NULL AND t.createDate > :since")
+    List<String> findRecentAccessJtis(@Param("familyId") String familyId, @Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revokedDate = :now WHERE t.familyId = :familyId AND t.revokedDate IS NULL")
+    int revokeFamily(@Param("familyId") String familyId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expireDate < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,24 @@
+// src/main/java/com/investingapp/backend/repository/RevokedAccessTokenRepository.java
+package com.investingapp.backend.repository;
+
+import com.investingapp.backend.model.RevokedAccessToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedAccessTokenRepository extends JpaRepository<RevokedAccessToken, String> {
+
+    List<RevokedAccessToken> findAllByExpireDateAfter(LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevokedAccessToken r WHERE r.expireDate < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -1,14 +1,23 @@
 // src/main/java/com/investingapp/backend/repository/UserPaycheckConfigRepository.java
 package com.investingapp.backend.repository;
 
+import com.investingapp.backend.dto.PaycheckConfigDto;
 import com.investingapp.backend.model.User;
 import com.investingapp.backend.model.UserPaycheckConfig;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
 public interface UserPaycheckConfigRepository extends JpaRepository<UserPaycheckConfig, Long> {
     List<UserPaycheckConfig> findByUser(User user);
+    List<UserPaycheckConfig> findAllByUser_Id(Long userId); // By FK column, without touching the User proxy
     void deleteByUser(User user); // For easily replacing all configs
-}
\ No newline at end of file
+
+    // Projection straight into the DTO: no managed entities, no User proxy
+    @Query("SELECT new com.investingapp.backend.dto.PaycheckConfigDto(c.accountId, c.name, c.withdrawalPercentage) " +
+            "FROM UserPaycheckConfig c WHERE c.user.id = :userId ORDER BY c.id")
+    List<PaycheckConfigDto> findConfigDtosByUserId(@Param("userId") Long userId);
+}
@@ -2,24 +2,73 @@
 package com.investingapp.backend.repository; // Make sure this package name matches
 
 import com.investingapp.backend.model.User; // Import your User entity
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
     // Spring Data JPA will automatically implement methods based on their names:
-
-    // Find a user by their email address
-    // Returns an Optional, which can be empty if no user is found
-    Optional<User> findByEmail(String email);
+    // (findByEmail is declared in UserRepositoryCustom, which loads it by natural id)
 
     // Check if a user exists with the given email address
     Boolean existsByEmail(String email);
 
     Optional<User> findByUserHandle(String userHandle);
 
+    // Resolves the user a Plaid webhook is about
+    Optional<User> findByPlaidItemId(String plaidItemId);
+
+    // Keyset page of Plaid-linked users in the ID range (afterId, lastId], a range scan of idx_users_plaid_linked_id.
+    // Pass the last ID of the previous page as afterId (the range's lower bound for the first page) and
+    // PageRequest.of(0, batchSize).
+    @Query("SELECT u FROM User u WHERE u.plaidLinked = true AND u.id > :afterId AND u.id <= :lastId ORDER BY u.id")
+    List<User> findLinkedUsersInRange(@Param("afterId") long afterId,
+                                      @Param("lastId") long lastId,
+                                      Pageable pageable);
+
+    // Highest ID among linked users, which decides how many income refresh partitions there are
+    @Query("SELECT MAX(u.id) FROM User u WHERE u.plaidLinked = true")
+    Optional<Long> findMaxLinkedUserId();
+
+    // Keyset page of abandoned passkey registrations: users /register/start created (so they have a user handle)
+    // who never got a passkey, refresh token, paycheck config or income stream, and were not linked to Plaid.
+    // Password-registered users have no user handle, and a linked user is a real account even without streams.
+    @Query(value = "SELECT u.id FROM users u WHERE u.id > :afterId AND u.create_date < :createdBefore " +
+            "AND u.user_handle IS NOT NULL AND u.plaid_linked = false " +
+            "AND NOT EXISTS (SELECT 1 FROM passkey_credentials c WHERE c.user_id = u.id) " +
+            "AND NOT EXISTS (SELECT 1 FROM refresh_tokens t WHERE t.user_id = u.id) " +
+            "AND NOT EXISTS (SELECT 1 FROM user_paycheck_configs p WHERE p.user_id = u.id) " +
+            "AND NOT EXISTS (SELECT 1 FROM income_streams s WHERE s.user_id = u.id) " +
+            "ORDER BY u.id LIMIT :limit", nativeQuery = true)
+    List<Long> findOrphanedUserIds(@Param("afterId") long afterId,
+                                   @Param("createdBefore") LocalDateTime createdBefore,
+                                   @Param("limit") int limit);
+
+    // Re-checks the conditions, so a user who finished registering since the page was read is kept. The query
+    // space makes Hibernate drop the users entity and email natural-id regions afterwards, and only those.
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_NATIVE_SPACES, value = "users"))
+    @Query(value = "DELETE FROM users WHERE id IN (:ids) AND create_date < :createdBefore " +
+            "AND user_handle IS NOT NULL AND plaid_linked = false " +
+            "AND NOT EXISTS (SELECT 1 FROM passkey_credentials c WHERE c.user_id = users.id) " +
+            "AND NOT EXISTS (SELECT 1 FROM refresh_tokens t WHERE t.user_id = users.id) " +
+            "AND NOT EXISTS (SELECT 1 FROM user_paycheck_configs p WHERE p.user_id = users.id) " +
+            "AND NOT EXISTS (SELECT 1 FROM income_streams s WHERE s.user_id = users.id)", nativeQuery = true)
+    int deleteOrphanedUsers(@Param("ids") List<Long> ids, @Param("createdBefore") LocalDateTime createdBefore);
+
     // You can add more custom query methods here as needed following Spring Data JPA conventions
     // e.g., List<User> findByLastName(String lastName);
 }
\ No newline at end of file
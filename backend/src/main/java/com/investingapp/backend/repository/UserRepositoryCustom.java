@@ -0,0 +1,14 @@
+// src/main/java/com/investingapp/backend/repository/UserRepositoryCustom.java
+package com.investingapp.backend.repository;
+
+import com.investingapp.backend.model.User;
+
+import java.util.Optional;
+
+// Lookups Spring Data can't derive from a method name; implemented in UserRepositoryCustomImpl
+public interface UserRepositoryCustom {
+
+    // Find a user by their email address
+    // Returns an Optional, which can be empty if no user is found
+    Optional<User> findByEmail(String email);
+}
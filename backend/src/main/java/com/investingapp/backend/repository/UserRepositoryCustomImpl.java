@@ -0,0 +1,29 @@
+// src/main/java/com/investingapp/backend/repository/UserRepositoryCustomImpl.java
+package com.investingapp.backend.repository;
+
+import com.investingapp.backend.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Loads by natural id: the email resolves to the user's ID through the users.email region and the row comes
+     * from the users entity region, so a warm lookup runs no SQL. Misses are not cached, so a user created on
+     * another node is found straight away.
+     */
+    @Override
+    @Transactional(readOnly = true) // Like SimpleJpaRepository's finders; the Session must outlive the unwrap
+    public Optional<User> findByEmail(String email) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(email);
+    }
+}
@@ -1,7 +1,11 @@
 // src/main/java/com/investingapp/backend/security/jwt/AuthTokenFilter.java
 package com.investingapp.backend.security.jwt;
 
-import com.investingapp.backend.security.services.UserDetailsServiceImpl;
+import com.investingapp.backend.security.services.UserDetailsCache;
+import com.investingapp.backend.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,19 +19,30 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter; // Use OncePerRequestFilter
 
 import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 // @Component // Mark as a Spring component to be auto-detected
 public class AuthTokenFilter extends OncePerRequestFilter { // Extend OncePerRequestFilter
     @Autowired
     private JwtUtils jwtUtils;
 
+    // Principal lookups go through the cache instead of UserDetailsServiceImpl, avoiding a MySQL round trip per request
     @Autowired
-    private UserDetailsServiceImpl userDetailsService;
+    private UserDetailsCache userDetailsCache;
+
+    // In-memory jti lookup; revocations are synced from the database in the background
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
@@ -50,34 +65,48 @@ public class AuthTokenFilter extends OncePerRequestFilter { // Extend OncePerReq
             return; // <<<<----- CRUCIAL: Exit filter early
         }
 
+        long authStart = System.nanoTime();
+        String outcome = "anonymous";
         try {
             String jwt = parseJwt(request); // Ensure parseJwt is working (from your JwtUtils or locally)
             logger.info("AuthTokenFilter: Parsed JWT from header: {}", jwt);
 
             if (jwt != null) {
-                boolean isValid = jwtUtils.validateJwtToken(jwt); // Explicitly store result
-                logger.info("AuthTokenFilter: JWT validation result: {}", isValid);
-                if (isValid) {
-                    String username = jwtUtils.getUserNameFromJwtToken(jwt);
+                // One signature check; the principal itself comes from UserDetailsCache (see currentPrincipal)
+                Optional<Claims> claims = jwtUtils.parseAndValidate(jwt);
+                logger.info("AuthTokenFilter: JWT validation result: {}", claims.isPresent());
+                if (claims.isPresent() && tokenRevocationService.isRevoked(claims.get().getId())) {
+                    outcome = "revoked";
+                    logger.warn("AuthTokenFilter: JWT {} has been revoked and was not set in SecurityContext.", claims.get().getId());
+                } else if (claims.isPresent()) {
+                    String username = claims.get().getSubject();
                     logger.info("AuthTokenFilter: Username from token: {}", username);
 
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities());
-                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                    logger.info("AuthTokenFilter: User '{}' authenticated and set in SecurityContext.", username);
-
-                    logger.info("AuthTokenFilter: Authentication object set in SecurityContext. IsAuthenticated: {}",
-                            SecurityContextHolder.getContext().getAuthentication().isAuthenticated());
-                    logger.info("AuthTokenFilter: Principal: {}",
-                            SecurityContextHolder.getContext().getAuthentication().getPrincipal());
-                    logger.info("AuthTokenFilter: Authorities: {}",
-                            SecurityContextHolder.getContext().getAuthentication().getAuthorities());
+                    Optional<UserDetails> principal = currentPrincipal(claims.get());
+                    if (principal.isEmpty()) {
+                        outcome = "unknown_user";
+                        logger.warn("AuthTokenFilter: User '{}' no longer exists and was not set in SecurityContext.", username);
+                    } else {
+                        UserDetails userDetails = principal.get();
+                        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                                userDetails,
+                                null,
+                                userDetails.getAuthorities());
+                        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+                        SecurityContextHolder.getContext().setAuthentication(authentication);
+                        outcome = "authenticated";
+                        logger.info("AuthTokenFilter: User '{}' authenticated and set in SecurityContext.", username);
+
+                        logger.info("AuthTokenFilter: Authentication object set in SecurityContext. IsAuthenticated: {}",
+                                SecurityContextHolder.getContext().getAuthentication().isAuthenticated());
+                        logger.info("AuthTokenFilter: Principal: {}",
+                                SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+                        logger.info("AuthTokenFilter: Authorities: {}",
+                                SecurityContextHolder.getContext().getAuthentication().getAuthorities());
+                    }
                 } else {
+                    outcome = "invalid";
                     logger.warn("AuthTokenFilter: JWT token is invalid and was not set in SecurityContext.");
                 }
             } else {
@@ -87,13 +116,38 @@ public class AuthTokenFilter extends OncePerRequestFilter { // Extend OncePerReq
             // This catch block might be too broad; specific exceptions are caught in
             // validateJwtToken
             // But good for unexpected errors during the filter process.
+            outcome = "error";
             logger.error("AuthTokenFilter: Error processing JWT authentication: {}", e.getMessage(), e);
         }
+        // Time spent authenticating only, not the rest of the request
+        Timer.builder("auth.filter")
+                .description("Time AuthTokenFilter spends validating the JWT and resolving the principal")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - authStart, TimeUnit.NANOSECONDS);
         logger.info("AuthTokenFilter START: Request Hash: {}, URI: {}", request.hashCode(), request.getRequestURI());
         filterChain.doFilter(request, response);
         logger.info("AuthTokenFilter END: Request Hash: {}, URI: {}", request.hashCode(), request.getRequestURI());
     }
 
+    // The principal comes from UserDetailsCache rather than the token's roles claim: cached entries are dropped
+    // when the User row is updated or deleted (UserCacheInvalidationListener), so role changes and deleted
+    // accounts take effect for tokens already issued. A cache hit costs no database round trip.
+    private Optional<UserDetails> currentPrincipal(Claims claims) {
+        UserDetails userDetails;
+        try {
+            userDetails = userDetailsCache.loadUserByUsername(claims.getSubject());
+        } catch (UsernameNotFoundException e) {
+            return Optional.empty();
+        }
+        // A token for an account that was deleted and re-created under the same email must not carry over
+        Number userId = claims.get(JwtUtils.CLAIM_USER_ID, Number.class);
+        if (userId != null && userDetails instanceof UserDetailsImpl impl && !impl.getId().equals(userId.longValue())) {
+            return Optional.empty();
+        }
+        return Optional.of(userDetails);
+    }
+
     private String parseJwt(HttpServletRequest request) {
         // This method can be moved to JwtUtils if preferred, or kept here
         String headerAuth = request.getHeader("Authorization");
@@ -5,36 +5,59 @@ import io.jsonwebtoken.*; // Keep this
 import io.jsonwebtoken.io.Decoders; // For decoding base64 secret
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException; // Keep this
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct; // Correct PostConstruct import
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
+import com.investingapp.backend.security.services.UserDetailsImpl;
+import org.springframework.security.core.GrantedAuthority;
+
 import javax.crypto.SecretKey; // Standard Java crypto
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    // Extra claims so AuthTokenFilter can build the principal without a database lookup
+    public static final String CLAIM_USER_ID = "userId";
+    public static final String CLAIM_ROLES = "roles";
+
     @Value("${jwt.secret}")
     private String jwtSecretString; // This should be a Base64 encoded string or a very strong raw string
 
     @Value("${jwt.expiration.ms}")
     private int jwtExpirationMs;
 
+    @Value("${jwt.verified-cache.maximum-size:10000}")
+    private long verifiedCacheMaximumSize;
+
+    @Value("${jwt.verified-cache.max-ttl-seconds:300}")
+    private long verifiedCacheMaxTtlSeconds;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private SecretKey key;
+    private JwtParser jwtParser; // Immutable and thread-safe; built once instead of per call
+    private VerifiedTokenCache verifiedTokenCache; // Repeat requests with the same bearer token skip the HMAC check
 
     @PostConstruct
     public void init() {
         // CRITICAL LOGGING FOR DEBUGGING:
         logger.info("============================================================");
-        logger.info("JwtUtils initializing with jwt.secret: '{}'", jwtSecretString); // Log the raw string
         logger.info("JwtUtils jwt.expiration.ms: {}", jwtExpirationMs);
         logger.info("============================================================");
 
@@ -53,26 +76,44 @@ public class JwtUtils {
             // Consider throwing an error or using a securely generated default for dev if this happens
         }
         this.key = Keys.hmacShaKeyFor(keyBytes);
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(this.key).build();
+        this.verifiedTokenCache = new VerifiedTokenCache(verifiedCacheMaximumSize, verifiedCacheMaxTtlSeconds);
+        this.verifiedTokenCache.bindTo(meterRegistry, "jwt.verified");
         logger.info("JwtUtils SecretKey initialized successfully.");
     }
 
     public String generateJwtToken(Authentication authentication) {
-        UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
-
-        logger.info("JwtUtils generateJwtToken - Using key object: {}", System.identityHashCode(this.key));
-        logger.info("JwtUtils generateJwtToken - Current jwtSecretString value: '{}'", this.jwtSecretString);
+        return generateJwtToken((UserDetails) authentication.getPrincipal(), UUID.randomUUID().toString());
+    }
 
-        return Jwts.builder()
+    // The jti lets a single access token be revoked (see TokenRevocationService) before it expires
+    public String generateJwtToken(UserDetails userPrincipal, String jti) {
+        JwtBuilder builder = Jwts.builder()
                 .setSubject(userPrincipal.getUsername()) // Use setSubject
+                .setId(jti);
+        if (userPrincipal instanceof UserDetailsImpl userDetails) {
+            builder.claim(CLAIM_USER_ID, userDetails.getId());
+        }
+        List<String> roles = userPrincipal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList());
+        builder.claim(CLAIM_ROLES, roles);
+
+        return builder
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
                 .signWith(key, SignatureAlgorithm.HS256) // Or another HS algorithm
                 .compact();
     }
 
+    public long getJwtExpirationMs() {
+        return jwtExpirationMs;
+    }
+
     public String generateTokenFromUsername(String username) {
         return Jwts.builder()
                 .setSubject(username) // Use setSubject
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
                 .signWith(key, SignatureAlgorithm.HS256)
@@ -80,25 +121,22 @@ public class JwtUtils {
     }
 
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder()      // Use parserBuilder()
-                .setSigningKey(key)      // Use setSigningKey(Key)
-                .build()
-                .parseClaimsJws(token)   // Use parseClaimsJws for signed tokens
-                .getBody()               // Use getBody() to get Claims
-                .getSubject();
+        return jwtParser.parseClaimsJws(token).getBody().getSubject();
     }
 
     public boolean validateJwtToken(String authToken) {
-        logger.info("JwtUtils validateJwtToken - Validating with key object: {}", System.identityHashCode(this.key));
-        logger.info("JwtUtils validateJwtToken - Current jwtSecretString value (for reference): '{}'", this.jwtSecretString); // Should be the new one
+        return parseAndValidate(authToken).isPresent();
+    }
 
+    /**
+     * Verifies the signature and expiry once and returns the claims, or empty if the token is invalid.
+     * Callers should use this instead of validateJwtToken followed by getUserNameFromJwtToken,
+     * which would verify the HMAC twice. Tokens seen before are answered from the verified-token cache
+     * until their exp.
+     */
+    public Optional<Claims> parseAndValidate(String authToken) {
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(this.key) // Ensure it's using this.key
-                .build()
-                .parseClaimsJws(authToken);
-            logger.info("JwtUtils validateJwtToken - Token validation successful for token: {}", authToken);
-            return true;
+            return Optional.of(verifiedTokenCache.verify(authToken, token -> jwtParser.parseClaimsJws(token).getBody()));
         } catch (SignatureException e) {
             logger.error("JwtUtils validateJwtToken - Invalid JWT signature: {} for token: {}", e.getMessage(), authToken);
         } catch (MalformedJwtException e) {
@@ -110,7 +148,7 @@ public class JwtUtils {
         } catch (IllegalArgumentException e) {
             logger.error("JwtUtils validateJwtToken - JWT claims string is empty or invalid: {} for token: {}", e.getMessage(), authToken);
         }
-        return false;
+        return Optional.empty();
     }
 
     public String parseJwt(HttpServletRequest request) {
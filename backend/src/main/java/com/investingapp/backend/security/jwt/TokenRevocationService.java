@@ -0,0 +1,86 @@
+// src/main/java/com/investingapp/backend/security/jwt/TokenRevocationService.java
+package com.investingapp.backend.security.jwt;
+
+import com.investingapp.backend.model.RevokedAccessToken;
+import com.investingapp.backend.repository.RevokedAccessTokenRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked access token IDs (jti), checked by AuthTokenFilter on every authenticated request.
+ *
+ * The check is a single hash lookup against an in-memory map of jti to expiry, so the filter never touches the
+ * database. Revocations are written to revoked_access_tokens and applied locally right away; other nodes pick
+ * them up on their next sync. Access tokens are short-lived, so entries (and rows) are dropped once the token
+ * they revoke would have expired anyway, which keeps the set small.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final RevokedAccessTokenRepository revokedAccessTokenRepository;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<String, Long> revokedUntil = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TokenRevocationService(RevokedAccessTokenRepository revokedAccessTokenRepository, MeterRegistry meterRegistry) {
+        this.revokedAccessTokenRepository = revokedAccessTokenRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("auth.revoked.tokens", revokedUntil, ConcurrentHashMap::size)
+                .description("Revoked, not yet expired access tokens held in memory")
+                .register(meterRegistry);
+    }
+
+    public boolean isRevoked(String jti) {
+        return jti != null && revokedUntil.containsKey(jti);
+    }
+
+    /** Revokes an access token until its expiry. Tokens without a jti (issued before jti existed) can't be revoked. */
+    public void revoke(String jti, Date expiration) {
+        if (jti == null || expiration == null || expiration.getTime() <= System.currentTimeMillis()) {
+            return;
+        }
+        LocalDateTime expireDate = LocalDateTime.ofInstant(expiration.toInstant(), ZoneId.systemDefault());
+        revokedAccessTokenRepository.save(new RevokedAccessToken(jti, expireDate));
+        revokedUntil.put(jti, expiration.getTime());
+    }
+
+    // Rows are never un-revoked, so merging is enough; no need to swap the whole map
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval-ms:15000}", initialDelay = 0)
+    public void sync() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<RevokedAccessToken> active = revokedAccessTokenRepository.findAllByExpireDateAfter(now);
+            for (RevokedAccessToken revoked : active) {
+                revokedUntil.putIfAbsent(revoked.getJti(),
+                        revoked.getExpireDate().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            }
+            long nowMs = System.currentTimeMillis();
+            revokedUntil.values().removeIf(expiresAt -> expiresAt <= nowMs);
+            int purged = revokedAccessTokenRepository.deleteExpired(now);
+            if (purged > 0) {
+                logger.info("Purged {} expired access token revocations.", purged);
+            }
+        } catch (Exception e) {
+            logger.error("Access token revocation sync failed: {}", e.getMessage(), e);
+        }
+    }
+}
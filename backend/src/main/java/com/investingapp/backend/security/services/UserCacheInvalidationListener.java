@@ -0,0 +1,41 @@
+// src/main/java/com/investingapp/backend/security/services/UserCacheInvalidationListener.java
+package com.investingapp.backend.security.services;
+
+import com.investingapp.backend.model.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// JPA entity listener on User (Spring-managed via Hibernate's bean container). Drops the cached principal
+// when the row is updated or deleted: once immediately, and again after commit so a request that reloaded
+// the old row mid-transaction can't leave it cached.
+@Component
+public class UserCacheInvalidationListener {
+
+    private final UserDetailsCache userDetailsCache;
+
+    @Autowired
+    public UserCacheInvalidationListener(@Lazy UserDetailsCache userDetailsCache) {
+        this.userDetailsCache = userDetailsCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        Long userId = user.getId();
+        String email = user.getEmail();
+        userDetailsCache.invalidateUser(userId, email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userDetailsCache.invalidateUser(userId, email);
+                }
+            });
+        }
+    }
+}
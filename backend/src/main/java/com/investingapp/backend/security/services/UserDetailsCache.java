@@ -0,0 +1,82 @@
+// src/main/java/com/investingapp/backend/security/services/UserDetailsCache.java
+package com.investingapp.backend.security.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded, TTL-based cache of authenticated principals keyed by JWT subject (the user's email), so
+ * AuthTokenFilter doesn't hit MySQL on every request. Entries are dropped when the User row changes
+ * (see {@link UserCacheInvalidationListener}); the TTL bounds staleness for anything that bypasses JPA.
+ * Unknown users are not cached, so a freshly registered user is found on their next request.
+ */
+@Component
+public class UserDetailsCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDetailsCache.class);
+
+    private final UserDetailsServiceImpl userDetailsService;
+    private final Cache<String, UserDetails> cache;
+    // User ID -> subject, so invalidation by entity also catches an entry cached under a since-changed email
+    private final Map<Long, String> subjectsByUserId = new ConcurrentHashMap<>();
+
+    @Autowired
+    public UserDetailsCache(UserDetailsServiceImpl userDetailsService,
+                            MeterRegistry meterRegistry,
+                            @Value("${auth.principal-cache.ttl-seconds:300}") long ttlSeconds,
+                            @Value("${auth.principal-cache.maximum-size:10000}") long maximumSize) {
+        this.userDetailsService = userDetailsService;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .removalListener((String subject, UserDetails details, RemovalCause cause) -> {
+                    if (details instanceof UserDetailsImpl impl) {
+                        subjectsByUserId.remove(impl.getId(), subject);
+                    }
+                })
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "auth.principal");
+    }
+
+    public UserDetails loadUserByUsername(String subject) throws UsernameNotFoundException {
+        return cache.get(subject, key -> {
+            UserDetails details = userDetailsService.loadUserByUsername(key);
+            if (details instanceof UserDetailsImpl impl) {
+                subjectsByUserId.put(impl.getId(), key);
+            }
+            return details;
+        });
+    }
+
+    public void invalidate(String subject) {
+        if (subject != null) {
+            cache.invalidate(subject);
+        }
+    }
+
+    public void invalidateUser(Long userId, String currentSubject) {
+        invalidate(currentSubject);
+        if (userId != null) {
+            String cachedSubject = subjectsByUserId.remove(userId);
+            if (cachedSubject != null) {
+                cache.invalidate(cachedSubject);
+            }
+        }
+        logger.debug("Invalidated cached principal for user ID {}", userId);
+    }
+}
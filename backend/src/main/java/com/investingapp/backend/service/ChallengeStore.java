@@ -0,0 +1,24 @@
+// src/main/java/com/investingapp/backend/service/ChallengeStore.java
+package com.investingapp.backend.service;
+
+import java.util.Optional;
+
+/**
+ * Pending WebAuthn ceremony state (registration options, assertion requests), held between a /start call and
+ * its /finish call. Values are the compact encodings from WebAuthnService (a few dozen bytes: the challenge and
+ * who it was issued for), so a shared implementation can hand them to whichever node serves /finish and the
+ * in-memory one can hold a large number of them.
+ *
+ * Select the implementation with webauthn.challenge-store.type: "memory" (default, single node) or "jdbc".
+ */
+public interface ChallengeStore {
+
+    /** Stores the value for the configured TTL, replacing anything pending under the same key. */
+    void put(String key, byte[] value);
+
+    /**
+     * Removes and returns the value. Single use: of concurrent takes for one key, at most one gets the value.
+     * Expired values are never returned.
+     */
+    Optional<byte[]> take(String key);
+}
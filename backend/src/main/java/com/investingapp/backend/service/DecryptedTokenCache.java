@@ -0,0 +1,85 @@
+// src/main/java/com/investingapp/backend/service/DecryptedTokenCache.java
+package com.investingapp.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.investingapp.backend.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Short-lived, size-bounded cache of decrypted Plaid access tokens, keyed by user ID and Plaid item ID.
+ *
+ * Plaintext is kept as a String: the Plaid client only takes the access token as a String inside its request
+ * models, so copies end up on the heap on every call anyway and zeroing a cached copy would buy nothing. What
+ * bounds a token's time in memory is the short TTL and the size limit. Each entry also remembers the ciphertext
+ * it was decrypted from: if the stored value changed (a re-link on another node, a re-encryption pass), the
+ * entry is treated as a miss rather than serving a stale token.
+ */
+@Service
+public class DecryptedTokenCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(DecryptedTokenCache.class);
+    private static final String CACHE_NAME = "plaid.decryptedTokens";
+
+    private record Key(Long userId, String itemId) {}
+
+    private record Entry(String ciphertext, String plaintext) {}
+
+    private final EncryptionService encryptionService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${plaid.decrypted-token-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${plaid.decrypted-token-cache.maximum-size:1000}")
+    private long maximumSize;
+
+    private Cache<Key, Entry> cache;
+
+    @Autowired
+    public DecryptedTokenCache(EncryptionService encryptionService, MeterRegistry meterRegistry) {
+        this.encryptionService = encryptionService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        logger.info("Decrypted token cache initialized. ttl={}s, maxSize={}", ttlSeconds, maximumSize);
+    }
+
+    /** Returns the user's decrypted Plaid access token, decrypting at most once per TTL. */
+    public String getAccessToken(User user) {
+        String ciphertext = user.getPlaidAccessToken();
+        if (ciphertext == null || ciphertext.isEmpty()) {
+            throw new IllegalStateException("User " + user.getId() + " has no Plaid access token");
+        }
+        Key key = new Key(user.getId(), user.getPlaidItemId());
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null && entry.ciphertext().equals(ciphertext)) {
+            return entry.plaintext();
+        }
+        String token = encryptionService.decrypt(ciphertext);
+        cache.put(key, new Entry(ciphertext, token));
+        return token;
+    }
+
+    /** Drops the cached token for the user's item, e.g. when the item is replaced by a re-link. */
+    public void invalidate(Long userId, String itemId) {
+        cache.invalidate(new Key(userId, itemId));
+    }
+}
@@ -1,31 +1,86 @@
 // src/main/java/com/investingapp/backend/security/service/EncryptionService.java
 package com.investingapp.backend.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
 
+/**
+ * Encrypts Plaid access tokens at rest.
+ *
+ * New values are AES-GCM with a random 96-bit IV, stored as {@code v<keyVersion>:base64(iv || ciphertext || tag)}.
+ * The version prefix says which key to decrypt with, so keys can be rotated (see encryption.current-key-version
+ * and encryption.keys.N) without a flag day. Values written before the prefix existed are AES/ECB under key 1
+ * and still decrypt; ':' never appears in Base64, so the two formats can't be confused.
+ *
+ * Keys are built once and Cipher instances are reused per thread: Cipher.getInstance is a provider lookup
+ * and not cheap, while init with a new IV is.
+ */
 @Service
 public class EncryptionService {
 
+    private static final Logger logger = LoggerFactory.getLogger(EncryptionService.class);
+
     private static final String ALGORITHM = "AES";
+    private static final String GCM_TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final String LEGACY_TRANSFORMATION = "AES/ECB/PKCS5Padding"; // What Cipher.getInstance("AES") resolves to
+    private static final int GCM_IV_BYTES = 12;
+    private static final int GCM_TAG_BITS = 128;
+    private static final int LEGACY_KEY_VERSION = 1;
+
+    private static final ThreadLocal<Cipher> GCM_CIPHER = ThreadLocal.withInitial(() -> newCipher(GCM_TRANSFORMATION));
+    private static final ThreadLocal<Cipher> LEGACY_CIPHER = ThreadLocal.withInitial(() -> newCipher(LEGACY_TRANSFORMATION));
 
-    @Value("${encryption.secret-key}")
-    private String secretKey;
+    private final Map<Integer, SecretKeySpec> keys;
+    private final int currentKeyVersion;
+    private final String currentPrefix;
+    private final SecureRandom random = new SecureRandom();
 
-    private SecretKeySpec getKey() {
-        return new SecretKeySpec(secretKey.getBytes(), ALGORITHM);
+    // Key 1 is encryption.secret-key, the key legacy ECB values were written with; later keys are encryption.keys.N
+    @Autowired
+    public EncryptionService(@Value("${encryption.secret-key}") String secretKey,
+                             @Value("${encryption.current-key-version:1}") int currentKeyVersion,
+                             Environment environment) {
+        this(resolveKeys(secretKey, currentKeyVersion, environment), currentKeyVersion);
+    }
+
+    public EncryptionService(Map<Integer, String> secretKeys, int currentKeyVersion) {
+        if (!secretKeys.containsKey(currentKeyVersion)) {
+            throw new IllegalStateException("No encryption key configured for current version " + currentKeyVersion);
+        }
+        Map<Integer, SecretKeySpec> specs = new HashMap<>();
+        secretKeys.forEach((version, secret) -> specs.put(version, new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM)));
+        this.keys = Map.copyOf(specs);
+        this.currentKeyVersion = currentKeyVersion;
+        this.currentPrefix = "v" + currentKeyVersion + ":";
+        logger.info("EncryptionService initialized. current key version={}, known versions={}", currentKeyVersion, keys.keySet());
     }
 
     public String encrypt(String data) {
         try {
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.ENCRYPT_MODE, getKey());
-            byte[] encryptedBytes = cipher.doFinal(data.getBytes());
-            return Base64.getEncoder().encodeToString(encryptedBytes);
+            byte[] iv = new byte[GCM_IV_BYTES];
+            random.nextBytes(iv);
+            Cipher cipher = GCM_CIPHER.get();
+            cipher.init(Cipher.ENCRYPT_MODE, keys.get(currentKeyVersion), new GCMParameterSpec(GCM_TAG_BITS, iv));
+            byte[] plaintext = data.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer out = ByteBuffer.allocate(GCM_IV_BYTES + cipher.getOutputSize(plaintext.length));
+            out.put(iv);
+            cipher.doFinal(ByteBuffer.wrap(plaintext), out);
+            return currentPrefix + Base64.getEncoder().encodeToString(out.array());
         } catch (Exception e) {
             throw new RuntimeException("Error encrypting data", e);
         }
@@ -33,12 +88,71 @@ public class EncryptionService {
 
     public String decrypt(String encryptedData) {
         try {
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.DECRYPT_MODE, getKey());
-            byte[] decryptedBytes = cipher.doFinal(Base64.getDecoder().decode(encryptedData));
-            return new String(decryptedBytes);
+            return new String(decryptBytes(encryptedData), StandardCharsets.UTF_8);
         } catch (Exception e) {
             throw new RuntimeException("Error decrypting data", e);
         }
     }
+
+    private byte[] decryptBytes(String encryptedData) throws GeneralSecurityException {
+        int separator = encryptedData.indexOf(':');
+        if (separator < 0) {
+            return decryptLegacy(encryptedData);
+        }
+        int version = parseVersion(encryptedData, separator);
+        SecretKeySpec key = keys.get(version);
+        if (key == null) {
+            throw new IllegalStateException("No encryption key configured for version " + version);
+        }
+        byte[] payload = Base64.getDecoder().decode(encryptedData.substring(separator + 1));
+        Cipher cipher = GCM_CIPHER.get();
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_BITS, payload, 0, GCM_IV_BYTES));
+        return cipher.doFinal(payload, GCM_IV_BYTES, payload.length - GCM_IV_BYTES);
+    }
+
+    /** True for legacy ECB values and values under an older key version, i.e. rows a re-encryption pass should rewrite. */
+    public boolean needsReEncryption(String encryptedData) {
+        return encryptedData != null && !encryptedData.startsWith(currentPrefix);
+    }
+
+    public int getCurrentKeyVersion() {
+        return currentKeyVersion;
+    }
+
+    private byte[] decryptLegacy(String encryptedData) throws GeneralSecurityException {
+        SecretKeySpec key = keys.get(LEGACY_KEY_VERSION);
+        if (key == null) {
+            throw new IllegalStateException("Legacy value found but no key configured for version " + LEGACY_KEY_VERSION);
+        }
+        Cipher cipher = LEGACY_CIPHER.get();
+        cipher.init(Cipher.DECRYPT_MODE, key);
+        return cipher.doFinal(Base64.getDecoder().decode(encryptedData));
+    }
+
+    private static int parseVersion(String encryptedData, int separator) {
+        if (separator < 2 || encryptedData.charAt(0) != 'v') {
+            throw new IllegalArgumentException("Malformed encrypted value");
+        }
+        return Integer.parseInt(encryptedData, 1, separator, 10);
+    }
+
+    private static Map<Integer, String> resolveKeys(String secretKey, int currentKeyVersion, Environment environment) {
+        Map<Integer, String> secretKeys = new HashMap<>();
+        secretKeys.put(LEGACY_KEY_VERSION, secretKey);
+        for (int version = LEGACY_KEY_VERSION + 1; version <= currentKeyVersion; version++) {
+            String key = environment.getProperty("encryption.keys." + version);
+            if (key != null) {
+                secretKeys.put(version, key);
+            }
+        }
+        return secretKeys;
+    }
+
+    private static Cipher newCipher(String transformation) {
+        try {
+            return Cipher.getInstance(transformation);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cipher " + transformation + " not available", e);
+        }
+    }
 }
@@ -0,0 +1,69 @@
+// src/main/java/com/investingapp/backend/service/InMemoryChallengeStore.java
+package com.investingapp.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Challenge store local to this JVM. Fastest, but /start and /finish must reach the same node, so it only suits a
+ * single instance (or sticky sessions).
+ *
+ * Bounded by an estimate of heap bytes rather than an entry count: with the compact encodings an entry costs about
+ * 260 bytes including the cache's own bookkeeping, so the default 384 MB holds over a million pending challenges.
+ * Challenges dropped for space before they expired are counted in webauthn.challenges.evicted{cause="size"}; any
+ * of those is a registration or sign-in that will fail with "challenge expired", so alert on its rate.
+ */
+@Service
+@ConditionalOnProperty(name = "webauthn.challenge-store.type", havingValue = "memory", matchIfMissing = true)
+public class InMemoryChallengeStore implements ChallengeStore {
+
+    // Caffeine node, map node and table slot, key String and value array headers, measured on a 64-bit JVM
+    // with compressed oops. Keys are ASCII, so one byte per character.
+    private static final int ENTRY_OVERHEAD_BYTES = 170;
+
+    private final Cache<String, byte[]> challenges;
+
+    @Autowired
+    public InMemoryChallengeStore(@Value("${webauthn.challenge-store.ttl-seconds:300}") long ttlSeconds,
+                                  @Value("${webauthn.challenge-store.maximum-megabytes:384}") long maximumMegabytes,
+                                  MeterRegistry meterRegistry) {
+        Counter evictedForSize = Counter.builder("webauthn.challenges.evicted").tag("cause", "size").register(meterRegistry);
+        Counter expired = Counter.builder("webauthn.challenges.evicted").tag("cause", "expired").register(meterRegistry);
+        this.challenges = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumWeight(maximumMegabytes * 1024 * 1024)
+                .weigher((String key, byte[] value) -> ENTRY_OVERHEAD_BYTES + key.length() + value.length)
+                .evictionListener((String key, byte[] value, RemovalCause cause) -> {
+                    if (cause == RemovalCause.SIZE) {
+                        evictedForSize.increment();
+                    } else if (cause == RemovalCause.EXPIRED) {
+                        expired.increment();
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, challenges, "webauthn.challenges");
+    }
+
+    @Override
+    public void put(String key, byte[] value) {
+        challenges.put(key, value);
+    }
+
+    // ConcurrentMap.remove is atomic, and Caffeine never returns an entry that has expired
+    @Override
+    public Optional<byte[]> take(String key) {
+        return Optional.ofNullable(challenges.asMap().remove(key));
+    }
+}
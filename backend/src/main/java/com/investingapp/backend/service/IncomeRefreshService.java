@@ -0,0 +1,248 @@
+// src/main/java/com/investingapp/backend/service/IncomeRefreshService.java
+package com.investingapp.backend.service;
+
+import com.investingapp.backend.dto.PaycheckSourceDto;
+import com.investingapp.backend.model.RefreshLease;
+import com.investingapp.backend.model.User;
+import com.investingapp.backend.repository.RefreshLeaseRepository;
+import com.investingapp.backend.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Keeps every linked user's recurring income fresh in the income_streams table, so /api/income reads never
+ * wait on Plaid.
+ *
+ * Users are split into partitions by ID range: partition {@code p} holds IDs in
+ * {@code (p * partitionIdSpan, (p + 1) * partitionIdSpan]}, so its users are one range scan of
+ * idx_users_plaid_linked_id, and new users only ever add partitions at the top. On each tick a node tries to
+ * lease the partitions that are due (not completed within the refresh interval) through a conditional UPDATE
+ * on refresh_leases. It then walks the partition's users in keyset-paged batches, refreshing at most
+ * {@code parallelism} users at a time. Leases expire, so a node that dies mid-partition only delays that
+ * partition until another node picks it up.
+ *
+ * A partition is only completed when every user in it was refreshed. Otherwise its lease is checkpointed just
+ * before the first failed user and released, so the next tick resumes the walk there instead of leaving that
+ * user's income stale for a whole interval.
+ */
+@Service
+public class IncomeRefreshService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncomeRefreshService.class);
+    // "income:" leases belonged to the earlier id % n partitions and are no longer used
+    private static final String LEASE_PREFIX = "income-range:";
+
+    private final PlaidService plaidService;
+    private final IncomeStreamService incomeStreamService;
+    private final UserRepository userRepository;
+    private final RefreshLeaseRepository refreshLeaseRepository;
+    private final DecryptedTokenCache decryptedTokenCache;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${plaid.income-refresh.enabled:true}")
+    private boolean enabled;
+
+    @Value("${plaid.income-refresh.partition-id-span:10000}")
+    private long partitionIdSpan;
+
+    @Value("${plaid.income-refresh.batch-size:100}")
+    private int batchSize;
+
+    @Value("${plaid.income-refresh.parallelism:8}")
+    private int parallelism;
+
+    @Value("${plaid.income-refresh.interval-minutes:360}")
+    private long intervalMinutes;
+
+    @Value("${plaid.income-refresh.lease-minutes:10}")
+    private long leaseMinutes;
+
+    private final String nodeId;
+    private ExecutorService persistenceExecutor;
+    private Counter refreshed;
+    private Counter failed;
+
+    @Autowired
+    public IncomeRefreshService(PlaidService plaidService,
+                                IncomeStreamService incomeStreamService,
+                                UserRepository userRepository,
+                                RefreshLeaseRepository refreshLeaseRepository,
+                                DecryptedTokenCache decryptedTokenCache,
+                                MeterRegistry meterRegistry) {
+        this.plaidService = plaidService;
+        this.incomeStreamService = incomeStreamService;
+        this.userRepository = userRepository;
+        this.refreshLeaseRepository = refreshLeaseRepository;
+        this.decryptedTokenCache = decryptedTokenCache;
+        this.meterRegistry = meterRegistry;
+        this.nodeId = hostName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        persistenceExecutor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "income-refresh-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        refreshed = Counter.builder("plaid.incomeRefresh.users").tag("result", "success").register(meterRegistry);
+        failed = Counter.builder("plaid.incomeRefresh.users").tag("result", "failure").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        persistenceExecutor.shutdownNow();
+    }
+
+    /**
+     * Fetches the user's income from Plaid and stores it.
+     * Used by the scheduled walk, webhooks, and the first read after a user links a bank.
+     */
+    public CompletableFuture<List<PaycheckSourceDto>> refreshUserAsync(User user) {
+        String decryptedAccessToken;
+        try {
+            decryptedAccessToken = decryptedTokenCache.getAccessToken(user);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return plaidService.getRecurringIncomeAsync(user.getPlaidItemId(), decryptedAccessToken)
+                .thenApplyAsync(paycheckSources -> {
+                    incomeStreamService.replacePaycheckSources(user, paycheckSources);
+                    return paycheckSources;
+                }, persistenceExecutor);
+    }
+
+    @Scheduled(fixedDelayString = "${plaid.income-refresh.poll-interval-ms:60000}",
+            initialDelayString = "${plaid.income-refresh.initial-delay-ms:30000}")
+    public void refreshDuePartitions() {
+        if (!enabled) {
+            return;
+        }
+        long maxUserId = userRepository.findMaxLinkedUserId().orElse(0L);
+        int partitions = (int) ((maxUserId + partitionIdSpan - 1) / partitionIdSpan);
+        ensureLeaseRows(partitions);
+
+        // Shuffle so nodes starting at the same moment don't all contend for partition 0 first
+        List<Integer> order = IntStream.range(0, partitions).boxed().collect(Collectors.toList());
+        Collections.shuffle(order);
+        for (int partition : order) {
+            String leaseId = LEASE_PREFIX + partition;
+            LocalDateTime now = LocalDateTime.now();
+            int acquired = refreshLeaseRepository.tryAcquire(leaseId, nodeId, now,
+                    now.plusMinutes(leaseMinutes), now.minusMinutes(intervalMinutes));
+            if (acquired == 0) {
+                continue; // Owned by another node, or already refreshed within the interval
+            }
+            try {
+                Long firstFailedId = refreshPartition(partition, leaseId);
+                if (firstFailedId == null) {
+                    // Clear the resume point first, so the next due walk starts at the beginning again
+                    refreshLeaseRepository.checkpoint(leaseId, nodeId, null, LocalDateTime.now().plusMinutes(leaseMinutes));
+                    refreshLeaseRepository.complete(leaseId, nodeId, LocalDateTime.now());
+                } else {
+                    refreshLeaseRepository.checkpoint(leaseId, nodeId, firstFailedId - 1, LocalDateTime.now());
+                    refreshLeaseRepository.release(leaseId, nodeId);
+                }
+            } catch (RuntimeException e) {
+                logger.error("Income refresh of partition {} failed: {}", partition, e.getMessage(), e);
+                refreshLeaseRepository.release(leaseId, nodeId);
+            }
+        }
+    }
+
+    // Returns the lowest ID of a user whose refresh failed, or null if all of them were refreshed
+    private Long refreshPartition(int partition, String leaseId) {
+        long start = System.currentTimeMillis();
+        long firstId = partition * partitionIdSpan;
+        long lastId = firstId + partitionIdSpan;
+        // Resume after the users an earlier, partly failed walk already refreshed
+        Long checkpoint = refreshLeaseRepository.findById(leaseId).map(RefreshLease::getCheckpoint).orElse(null);
+        long afterId = checkpoint != null ? Math.max(firstId, checkpoint) : firstId;
+        int userCount = 0;
+        AtomicInteger failures = new AtomicInteger();
+        AtomicLong firstFailedId = new AtomicLong(Long.MAX_VALUE);
+        Semaphore permits = new Semaphore(parallelism);
+
+        while (true) {
+            List<User> batch = userRepository.findLinkedUsersInRange(afterId, lastId, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            List<CompletableFuture<?>> inFlight = new ArrayList<>(batch.size());
+            for (User user : batch) {
+                permits.acquireUninterruptibly();
+                inFlight.add(refreshUserAsync(user).whenComplete((result, ex) -> {
+                    permits.release();
+                    if (ex != null) {
+                        failed.increment();
+                        failures.incrementAndGet();
+                        firstFailedId.accumulateAndGet(user.getId(), Math::min);
+                        logger.warn("Background income refresh failed for user {}: {}", user.getId(),
+                                PlaidService.unwrapAsyncFailure(ex).getMessage());
+                    } else {
+                        refreshed.increment();
+                    }
+                }));
+            }
+            // Per-user failures were logged and recorded above
+            CompletableFuture.allOf(inFlight.toArray(new CompletableFuture[0])).exceptionally(ex -> null).join();
+
+            userCount += batch.size();
+            afterId = batch.get(batch.size() - 1).getId();
+            if (refreshLeaseRepository.renew(leaseId, nodeId, LocalDateTime.now().plusMinutes(leaseMinutes)) == 0) {
+                throw new IllegalStateException("Lost lease " + leaseId + " to another node");
+            }
+        }
+        if (failures.get() > 0) {
+            logger.warn("Income refresh of partition {}: {} of {} users failed in {} ms (node {}); resuming from user {}",
+                    partition, failures.get(), userCount, System.currentTimeMillis() - start, nodeId, firstFailedId.get());
+            return firstFailedId.get();
+        }
+        logger.info("Income refresh of partition {} done: {} users in {} ms (node {})",
+                partition, userCount, System.currentTimeMillis() - start, nodeId);
+        return null;
+    }
+
+    // Lease rows are created on demand, so a growing user table needs no migration
+    private void ensureLeaseRows(int partitions) {
+        for (int partition = 0; partition < partitions; partition++) {
+            String leaseId = LEASE_PREFIX + partition;
+            if (!refreshLeaseRepository.existsById(leaseId)) {
+                refreshLeaseRepository.insertIfMissing(leaseId);
+            }
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown-host";
+        }
+    }
+}
@@ -0,0 +1,72 @@
+// src/main/java/com/investingapp/backend/service/IncomeStreamService.java
+package com.investingapp.backend.service;
+
+import com.investingapp.backend.dto.PaycheckSourceDto;
+import com.investingapp.backend.model.IncomeStream;
+import com.investingapp.backend.model.User;
+import com.investingapp.backend.repository.IncomeStreamRepository;
+import com.investingapp.backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+// Persisted recurring income streams. The background refresh writes them; the income API only reads them.
+@Service
+public class IncomeStreamService {
+
+    private final IncomeStreamRepository incomeStreamRepository;
+    private final UserRepository userRepository;
+
+    @Autowired
+    public IncomeStreamService(IncomeStreamRepository incomeStreamRepository, UserRepository userRepository) {
+        this.incomeStreamRepository = incomeStreamRepository;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * The user's stored paycheck sources, or empty if they have never been refreshed (e.g. just linked),
+     * in which case the caller has to fetch them from Plaid once.
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<PaycheckSourceDto>> findPaycheckSources(User user) {
+        if (user.getIncomeRefreshedDate() == null) {
+            return Optional.empty();
+        }
+        return Optional.of(incomeStreamRepository.findAllByUser_IdOrderByIdAsc(user.getId()).stream()
+                .map(stream -> new PaycheckSourceDto(stream.getAccountId(), stream.getName(),
+                        stream.getLastAmount(), stream.getLastDate(), stream.getFrequency()))
+                .collect(Collectors.toList()));
+    }
+
+    // Replaces the user's streams wholesale; the set is small (a handful per user) so a diff isn't worth it
+    @Transactional
+    public void replacePaycheckSources(User user, List<PaycheckSourceDto> paycheckSources) {
+        LocalDateTime now = LocalDateTime.now();
+        // Loaded rather than bulk-updated: a JPQL UPDATE on User would evict the whole users L2 region. User has
+        // @DynamicUpdate, so the flush writes only the refresh date (and updateDate), never other stale fields.
+        User managedUser = userRepository.findById(user.getId())
+                .orElseThrow(() -> new IllegalStateException("User " + user.getId() + " no longer exists"));
+        incomeStreamRepository.deleteAllByUserId(user.getId());
+
+        List<IncomeStream> streams = new ArrayList<>(paycheckSources.size());
+        for (PaycheckSourceDto source : paycheckSources) {
+            IncomeStream stream = new IncomeStream();
+            stream.setUser(managedUser);
+            stream.setAccountId(source.getAccountId());
+            stream.setName(source.getName());
+            stream.setLastAmount(source.getLastAmount());
+            stream.setLastDate(source.getLastDate());
+            stream.setFrequency(source.getFrequency());
+            stream.setRefreshedDate(now);
+            streams.add(stream);
+        }
+        incomeStreamRepository.saveAll(streams);
+        managedUser.setIncomeRefreshedDate(now);
+    }
+}
@@ -0,0 +1,77 @@
+// src/main/java/com/investingapp/backend/service/JdbcChallengeStore.java
+package com.investingapp.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Challenge store in the webauthn_challenges table, so /start and /finish can be served by different nodes.
+ *
+ * A take reads the row and then deletes it only if it still holds the version (nonce) that was read. The DELETE
+ * is the atomic step: of two concurrent takes only one sees an update count of 1, and a take racing a new put for
+ * the same key can't consume the newer challenge. Both are single-row primary key statements without an explicit
+ * transaction. Expired rows are never returned and are purged periodically.
+ */
+@Service
+@ConditionalOnProperty(name = "webauthn.challenge-store.type", havingValue = "jdbc")
+public class JdbcChallengeStore implements ChallengeStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcChallengeStore.class);
+
+    private record Row(byte[] payload, long nonce) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long ttlSeconds;
+
+    @Autowired
+    public JdbcChallengeStore(JdbcTemplate jdbcTemplate,
+                              @Value("${webauthn.challenge-store.ttl-seconds:300}") long ttlSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    @Override
+    public void put(String key, byte[] value) {
+        jdbcTemplate.update(
+                "INSERT INTO webauthn_challenges (challenge_key, payload, nonce, expire_date) VALUES (?, ?, ?, ?) " +
+                        "ON DUPLICATE KEY UPDATE payload = VALUES(payload), nonce = VALUES(nonce), expire_date = VALUES(expire_date)",
+                key, value, ThreadLocalRandom.current().nextLong(),
+                Timestamp.valueOf(LocalDateTime.now().plusSeconds(ttlSeconds)));
+    }
+
+    @Override
+    public Optional<byte[]> take(String key) {
+        List<Row> rows = jdbcTemplate.query(
+                "SELECT payload, nonce FROM webauthn_challenges WHERE challenge_key = ? AND expire_date > ?",
+                (rs, rowNum) -> new Row(rs.getBytes(1), rs.getLong(2)),
+                key, Timestamp.valueOf(LocalDateTime.now()));
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Row row = rows.get(0);
+        int deleted = jdbcTemplate.update("DELETE FROM webauthn_challenges WHERE challenge_key = ? AND nonce = ?",
+                key, row.nonce());
+        return deleted == 1 ? Optional.of(row.payload()) : Optional.empty();
+    }
+
+    @Scheduled(fixedDelayString = "${webauthn.challenge-store.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        int purged = jdbcTemplate.update("DELETE FROM webauthn_challenges WHERE expire_date <= ?",
+                Timestamp.valueOf(LocalDateTime.now()));
+        if (purged > 0) {
+            logger.debug("Purged {} expired WebAuthn challenges.", purged);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+// src/main/java/com/investingapp/backend/service/LinkTokenPool.java
+package com.investingapp.backend.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.plaid.client.model.LinkTokenCreateResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps Plaid's linkTokenCreate off the critical path of link token requests.
+ *
+ * Anonymous tokens only differ by client_user_id, so a pool of them is created ahead of time, each paired with
+ * the temporary user ID it was created for. Takes are instant and trigger an asynchronous refill. Tokens close
+ * to expiry are discarded, both when taken and by a periodic sweep. Authenticated tokens are created on
+ * demand but reused for repeated requests from the same user until shortly before they expire.
+ */
+@Service
+public class LinkTokenPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(LinkTokenPool.class);
+
+    public record PooledLinkToken(String linkToken, OffsetDateTime expiration, String temporaryUserId) {}
+
+    private final PlaidService plaidService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${plaid.link-token-pool.size:20}")
+    private int targetSize;
+
+    @Value("${plaid.link-token-pool.refill-parallelism:4}")
+    private int refillParallelism;
+
+    // A handed-out token must stay valid long enough for the user to get through Link
+    @Value("${plaid.link-token-pool.min-remaining-minutes:30}")
+    private long minRemainingMinutes;
+
+    @Value("${plaid.link-token-pool.sweep-interval-seconds:60}")
+    private long sweepIntervalSeconds;
+
+    private final ConcurrentLinkedQueue<PooledLinkToken> pool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final AtomicInteger refillsInFlight = new AtomicInteger();
+
+    private AsyncCache<String, LinkTokenCreateResponse> authenticatedTokens;
+    private ScheduledExecutorService sweeper;
+    private Counter hits;
+    private Counter misses;
+
+    @Autowired
+    public LinkTokenPool(PlaidService plaidService, MeterRegistry meterRegistry) {
+        this.plaidService = plaidService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        authenticatedTokens = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfter(new Expiry<String, LinkTokenCreateResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, LinkTokenCreateResponse value, long currentTime) {
+                        return reusableNanos(value.getExpiration());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, LinkTokenCreateResponse value, long currentTime, long currentDuration) {
+                        return reusableNanos(value.getExpiration());
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, LinkTokenCreateResponse value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .buildAsync();
+
+        Gauge.builder("plaid.linkTokenPool.size", pooled, AtomicInteger::get)
+                .description("Pre-created anonymous link tokens ready to hand out")
+                .register(meterRegistry);
+        hits = Counter.builder("plaid.linkTokenPool.take").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("plaid.linkTokenPool.take").tag("result", "miss").register(meterRegistry);
+
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "link-token-pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweepAndRefill, 0, sweepIntervalSeconds, TimeUnit.SECONDS);
+        logger.info("Link token pool initialized. target size={}, min remaining={}m", targetSize, minRemainingMinutes);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    /** Hands out a pre-created anonymous token, or creates one on the spot if the pool is empty. */
+    public CompletableFuture<PooledLinkToken> takeAnonymousAsync() {
+        PooledLinkToken token;
+        while ((token = pool.poll()) != null) {
+            pooled.decrementAndGet();
+            if (isUsable(token.expiration())) {
+                hits.increment();
+                refill();
+                return CompletableFuture.completedFuture(token);
+            }
+        }
+        misses.increment();
+        refill();
+        String temporaryUserId = newTemporaryUserId();
+        return plaidService.createLinkTokenAnonymousAsync(temporaryUserId)
+                .thenApply(response -> new PooledLinkToken(response.getLinkToken(), response.getExpiration(), temporaryUserId));
+    }
+
+    /** Returns the user's unexpired link token if one was created recently, otherwise creates a new one. */
+    public CompletableFuture<LinkTokenCreateResponse> getAuthenticatedAsync(String clientUserId) {
+        return authenticatedTokens.get(clientUserId, (key, executor) -> plaidService.createLinkTokenForAuthenticatedUserAsync(key));
+    }
+
+    /** Forgets the user's cached token, e.g. once its public token has been exchanged. */
+    public void invalidateAuthenticated(String clientUserId) {
+        authenticatedTokens.synchronous().invalidate(clientUserId);
+    }
+
+    private void sweepAndRefill() {
+        try {
+            int discarded = 0;
+            for (PooledLinkToken token : pool) {
+                if (!isUsable(token.expiration()) && pool.remove(token)) {
+                    pooled.decrementAndGet();
+                    discarded++;
+                }
+            }
+            if (discarded > 0) {
+                logger.info("Discarded {} pooled link tokens close to expiry.", discarded);
+            }
+            refill();
+        } catch (Exception e) {
+            logger.error("Link token pool sweep failed: {}", e.getMessage(), e);
+        }
+    }
+
+    // Tops the pool up without ever having more than refillParallelism creates outstanding. A failed create
+    // is not retried here; the next take or sweep tries again, so a Plaid outage doesn't turn into a hot loop.
+    private void refill() {
+        while (pooled.get() + refillsInFlight.get() < targetSize) {
+            int inFlight = refillsInFlight.get();
+            if (inFlight >= refillParallelism) {
+                return;
+            }
+            if (!refillsInFlight.compareAndSet(inFlight, inFlight + 1)) {
+                continue;
+            }
+            String temporaryUserId = newTemporaryUserId();
+            plaidService.createLinkTokenAnonymousAsync(temporaryUserId).whenComplete((response, ex) -> {
+                refillsInFlight.decrementAndGet();
+                if (ex != null) {
+                    logger.warn("Could not pre-create anonymous link token: {}", PlaidService.unwrapAsyncFailure(ex).getMessage());
+                    return;
+                }
+                pool.add(new PooledLinkToken(response.getLinkToken(), response.getExpiration(), temporaryUserId));
+                pooled.incrementAndGet();
+                refill();
+            });
+        }
+    }
+
+    private boolean isUsable(OffsetDateTime expiration) {
+        return expiration != null && expiration.isAfter(OffsetDateTime.now().plusMinutes(minRemainingMinutes));
+    }
+
+    private long reusableNanos(OffsetDateTime expiration) {
+        if (expiration == null) {
+            return 0;
+        }
+        Duration remaining = Duration.between(OffsetDateTime.now(), expiration).minusMinutes(minRemainingMinutes);
+        return Math.max(0, remaining.toNanos());
+    }
+
+    private static String newTemporaryUserId() {
+        return "anon_" + UUID.randomUUID();
+    }
+}
@@ -0,0 +1,90 @@
+// src/main/java/com/investingapp/backend/service/OrphanedUserCleanupJob.java
+package com.investingapp.backend.service;
+
+import com.investingapp.backend.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Deletes user rows left behind by abandoned passkey registrations. /register/start used to insert the user
+ * before the client had produced a credential; registration now only writes in finishRegistrationFlow.
+ *
+ * Only rows that can have come from that are candidates: they have a user handle, no passkey, refresh token,
+ * paycheck config or income stream, are not linked to Plaid, and were created before user.orphan-cleanup.created-before,
+ * the date the change was deployed. Password-registered users (no user handle) and Plaid-linked users are never
+ * touched; an abandoned registration that claimed a Plaid connection is left for manual review.
+ * Works in keyset chunks, each deleted in its own transaction. Safe to run on every node: the DELETE re-checks
+ * the conditions, so it is idempotent.
+ */
+@Service
+public class OrphanedUserCleanupJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrphanedUserCleanupJob.class);
+
+    private final UserRepository userRepository;
+    private final Counter deletedCounter;
+
+    @Value("${user.orphan-cleanup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${user.orphan-cleanup.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${user.orphan-cleanup.max-chunks-per-run:200}")
+    private int maxChunksPerRun;
+
+    // ISO date; rows created on or after it are never deleted
+    @Value("${user.orphan-cleanup.created-before:2026-10-17}")
+    private String createdBefore;
+
+    @Autowired
+    public OrphanedUserCleanupJob(UserRepository userRepository, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.deletedCounter = Counter.builder("users.orphans.deleted")
+                .description("User rows without credentials deleted by the orphan cleanup")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${user.orphan-cleanup.cron:0 45 3 * * *}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long afterId = 0L;
+        int deleted = 0;
+        try {
+            LocalDateTime cutoff = LocalDate.parse(createdBefore).atStartOfDay();
+            for (int i = 0; i < maxChunksPerRun; i++) {
+                List<Long> ids = userRepository.findOrphanedUserIds(afterId, cutoff, chunkSize);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                // Its query space evicts the users L2 regions. Orphans never signed in, so no principal cache holds them.
+                deleted += userRepository.deleteOrphanedUsers(ids, cutoff);
+                afterId = ids.get(ids.size() - 1);
+                if (ids.size() < chunkSize) {
+                    break;
+                }
+            }
+            deletedCounter.increment(deleted);
+            if (deleted > 0) {
+                logger.info("Orphaned user cleanup: {} deleted in {} ms", deleted, System.currentTimeMillis() - start);
+            } else {
+                logger.debug("Orphaned user cleanup: nothing to do");
+            }
+        } catch (Exception e) {
+            logger.error("Orphaned user cleanup failed after {} deletions: {}", deleted, e.getMessage(), e);
+        }
+    }
+}
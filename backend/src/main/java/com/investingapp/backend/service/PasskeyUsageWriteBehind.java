@@ -0,0 +1,183 @@
+// src/main/java/com/investingapp/backend/service/PasskeyUsageWriteBehind.java
+package com.investingapp.backend.service;
+
+import com.investingapp.backend.model.PasskeyCredential;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Write-behind buffer for passkey usage (signature count and last-used date) recorded by sign-ins.
+ *
+ * A sign-in only records the usage here, so it makes no database write for it. Usages are coalesced per credential
+ * (highest count, latest date) and flushed by a background thread in JDBC batches, every flush interval or sooner
+ * once a batch worth is pending. The UPDATE never lowers a stored count, so flushes from several nodes can land in
+ * any order. Rows that fail to flush are merged back and retried on the next flush.
+ *
+ * Usage buffered on a node that dies before flushing is lost. That is acceptable: the count is only a clone-detection
+ * hint, and YubicoCredentialRepository keeps the new count in its cache for the assertions that follow.
+ */
+@Service
+public class PasskeyUsageWriteBehind {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasskeyUsageWriteBehind.class);
+
+    private record Usage(long signatureCount, LocalDateTime usedDate) {
+        Usage merge(Usage other) {
+            return new Usage(Math.max(signatureCount, other.signatureCount),
+                    usedDate.isAfter(other.usedDate) ? usedDate : other.usedDate);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Value("${webauthn.usage-write-behind.flush-interval-ms:2000}")
+    private long flushIntervalMs;
+
+    @Value("${webauthn.usage-write-behind.batch-size:500}")
+    private int batchSize;
+
+    private final Map<String, Usage> pending = new ConcurrentHashMap<>(); // By credential external ID
+    private final AtomicBoolean earlyFlushScheduled = new AtomicBoolean();
+    private ScheduledExecutorService flusher;
+    private Counter flushedRows;
+    private Counter failedRows;
+
+    @Autowired
+    public PasskeyUsageWriteBehind(JdbcTemplate jdbcTemplate,
+                                   NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                                   MeterRegistry meterRegistry,
+                                   EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @PostConstruct
+    public void init() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "passkey-usage-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        Gauge.builder("webauthn.usage.pending", pending, Map::size).register(meterRegistry);
+        flushedRows = Counter.builder("webauthn.usage.flushed").tag("result", "written").register(meterRegistry);
+        failedRows = Counter.builder("webauthn.usage.flushed").tag("result", "failed").register(meterRegistry);
+    }
+
+    // Flush what is still buffered so a clean shutdown loses nothing
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * Records a successful assertion with the given credential. Never touches the database.
+     *
+     * Once shutdown has begun no early flush is scheduled: the final flush in shutdown() drains whatever is pending,
+     * and a sign-in finishing during a graceful shutdown must not fail on the stopped executor.
+     */
+    public void record(String externalId, long signatureCount, LocalDateTime usedDate) {
+        pending.merge(externalId, new Usage(signatureCount, usedDate), Usage::merge);
+        if (pending.size() >= batchSize && !flusher.isShutdown() && earlyFlushScheduled.compareAndSet(false, true)) {
+            try {
+                flusher.execute(() -> {
+                    earlyFlushScheduled.set(false);
+                    flush();
+                });
+            } catch (RejectedExecutionException e) {
+                // Shut down between the check and execute; the final flush picks the usage up
+                earlyFlushScheduled.set(false);
+            }
+        }
+    }
+
+    synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        // Removing each entry as it's taken means a usage recorded meanwhile starts a new entry for the next flush
+        List<Object[]> rows = new ArrayList<>(pending.size());
+        for (String externalId : pending.keySet()) {
+            Usage usage = pending.remove(externalId);
+            if (usage != null) {
+                rows.add(new Object[]{usage.signatureCount(), Timestamp.valueOf(usage.usedDate()), externalId});
+            }
+        }
+        try {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE passkey_credentials SET signature_count = GREATEST(signature_count, ?), last_used_date = ? " +
+                            "WHERE external_id = ?",
+                    rows, batchSize, (ps, row) -> {
+                        ps.setLong(1, (Long) row[0]);
+                        ps.setTimestamp(2, (Timestamp) row[1]);
+                        ps.setString(3, (String) row[2]);
+                    });
+            flushedRows.increment(rows.size());
+        } catch (RuntimeException e) {
+            logger.warn("Flushing {} passkey usage updates failed, will retry: {}", rows.size(), e.getMessage());
+            failedRows.increment(rows.size());
+            for (Object[] row : rows) {
+                pending.merge((String) row[2],
+                        new Usage((Long) row[0], ((Timestamp) row[1]).toLocalDateTime()), Usage::merge);
+            }
+            return;
+        }
+        evictFromSecondLevelCache(rows);
+    }
+
+    // JDBC writes bypass Hibernate, so drop the flushed credentials' now stale entities from the second-level cache.
+    // The cache is keyed by row ID, hence the lookup; other credentials stay cached. A failure here only leaves
+    // entries stale until their TTL, so it doesn't requeue the usages.
+    private void evictFromSecondLevelCache(List<Object[]> rows) {
+        try {
+            for (int from = 0; from < rows.size(); from += batchSize) {
+                List<String> externalIds = new ArrayList<>(Math.min(batchSize, rows.size() - from));
+                for (Object[] row : rows.subList(from, Math.min(from + batchSize, rows.size()))) {
+                    externalIds.add((String) row[2]);
+                }
+                List<Long> ids = namedParameterJdbcTemplate.queryForList(
+                        "SELECT id FROM passkey_credentials WHERE external_id IN (:externalIds)",
+                        Map.of("externalIds", externalIds), Long.class);
+                for (Long id : ids) {
+                    entityManagerFactory.getCache().evict(PasskeyCredential.class, id);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Evicting {} flushed passkey credentials from the L2 cache failed: {}", rows.size(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+// src/main/java/com/investingapp/backend/service/PendingPlaidConnectionSweeper.java
+package com.investingapp.backend.service;
+
+import com.investingapp.backend.repository.PendingPlaidConnectionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.function.IntSupplier;
+
+/**
+ * Expires and purges abandoned anonymous Plaid links. Rows still PENDING_ACCOUNT_CREATION past their
+ * expire_date are marked EXPIRED; EXPIRED (and any leftover CLAIMED) rows are deleted once they are older
+ * than the retention window. Both steps run in bounded chunks, and each chunk commits on its own.
+ * Safe to run on every node: the statements are idempotent.
+ */
+@Service
+public class PendingPlaidConnectionSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(PendingPlaidConnectionSweeper.class);
+
+    private final PendingPlaidConnectionRepository pendingPlaidConnectionRepository;
+    private final Counter expiredCounter;
+    private final Counter purgedCounter;
+
+    @Value("${plaid.pending-sweep.chunk-size:500}")
+    private int chunkSize;
+
+    // Upper bound on chunks per step per run, so one run can't monopolise the database after an outage
+    @Value("${plaid.pending-sweep.max-chunks-per-run:200}")
+    private int maxChunksPerRun;
+
+    @Value("${plaid.pending-sweep.retention-hours:24}")
+    private long retentionHours;
+
+    @Autowired
+    public PendingPlaidConnectionSweeper(PendingPlaidConnectionRepository pendingPlaidConnectionRepository,
+                                         MeterRegistry meterRegistry) {
+        this.pendingPlaidConnectionRepository = pendingPlaidConnectionRepository;
+        this.expiredCounter = Counter.builder("plaid.pendingConnections.expired")
+                .description("Pending Plaid connections marked EXPIRED by the sweeper")
+                .register(meterRegistry);
+        this.purgedCounter = Counter.builder("plaid.pendingConnections.purged")
+                .description("Pending Plaid connection rows deleted by the sweeper")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${plaid.pending-sweep.interval-ms:300000}",
+            initialDelayString = "${plaid.pending-sweep.initial-delay-ms:60000}")
+    public void sweep() {
+        long start = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            int expired = inChunks(() -> pendingPlaidConnectionRepository.expirePendingChunk(now, chunkSize));
+            int purged = inChunks(() -> pendingPlaidConnectionRepository.purgeChunk(now.minusHours(retentionHours), chunkSize));
+            expiredCounter.increment(expired);
+            purgedCounter.increment(purged);
+            if (expired > 0 || purged > 0) {
+                logger.info("Pending Plaid connection sweep: {} expired, {} purged in {} ms",
+                        expired, purged, System.currentTimeMillis() - start);
+            } else {
+                logger.debug("Pending Plaid connection sweep: nothing to do");
+            }
+        } catch (Exception e) {
+            logger.error("Pending Plaid connection sweep failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private int inChunks(IntSupplier chunk) {
+        int total = 0;
+        for (int i = 0; i < maxChunksPerRun; i++) {
+            int affected = chunk.getAsInt();
+            total += affected;
+            if (affected < chunkSize) {
+                break;
+            }
+        }
+        return total;
+    }
+}
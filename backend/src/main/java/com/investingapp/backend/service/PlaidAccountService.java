@@ -0,0 +1,94 @@
+// src/main/java/com/investingapp/backend/service/PlaidAccountService.java
+package com.investingapp.backend.service;
+
+import com.investingapp.backend.model.PlaidAccount;
+import com.investingapp.backend.repository.PlaidAccountRepository;
+import com.plaid.client.model.AccountBase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+// Persisted account catalog per Plaid item. Populated at token exchange and refreshed lazily when stale.
+@Service
+public class PlaidAccountService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaidAccountService.class);
+
+    private final PlaidAccountRepository plaidAccountRepository;
+
+    @Value("${plaid.accounts.refresh-after-hours:24}")
+    private long refreshAfterHours;
+
+    @Autowired
+    public PlaidAccountService(PlaidAccountRepository plaidAccountRepository) {
+        this.plaidAccountRepository = plaidAccountRepository;
+    }
+
+    /**
+     * Account IDs for the item if the catalog has a fresh copy; empty if it was never synced or is older
+     * than the refresh window, in which case the caller should fetch /accounts/get and {@link #syncAccounts}.
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<String>> findFreshAccountIds(String plaidItemId) {
+        if (plaidItemId == null) {
+            return Optional.empty();
+        }
+        List<PlaidAccount> accounts = plaidAccountRepository.findAllByPlaidItemId(plaidItemId);
+        if (accounts.isEmpty()) {
+            return Optional.empty();
+        }
+        LocalDateTime staleBefore = LocalDateTime.now().minusHours(refreshAfterHours);
+        boolean stale = accounts.stream().anyMatch(account -> account.getLastSyncedDate().isBefore(staleBefore));
+        if (stale) {
+            logger.debug("Account catalog for Plaid item {} is older than {}h; refreshing.", plaidItemId, refreshAfterHours);
+            return Optional.empty();
+        }
+        return Optional.of(accounts.stream().map(PlaidAccount::getAccountId).collect(Collectors.toList()));
+    }
+
+    // Upserts the item's accounts from an /accounts/get response and removes accounts Plaid no longer returns.
+    @Transactional
+    public void syncAccounts(String plaidItemId, List<AccountBase> plaidAccounts) {
+        Map<String, PlaidAccount> existing = new HashMap<>();
+        for (PlaidAccount account : plaidAccountRepository.findAllByPlaidItemId(plaidItemId)) {
+            existing.put(account.getAccountId(), account);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<PlaidAccount> toSave = new ArrayList<>(plaidAccounts.size());
+        for (AccountBase plaidAccount : plaidAccounts) {
+            PlaidAccount account = existing.remove(plaidAccount.getAccountId());
+            if (account == null) {
+                account = new PlaidAccount(plaidItemId, plaidAccount.getAccountId());
+            }
+            account.setName(plaidAccount.getName());
+            account.setOfficialName(plaidAccount.getOfficialName());
+            account.setMask(plaidAccount.getMask());
+            account.setType(plaidAccount.getType() != null ? plaidAccount.getType().toString() : null);
+            account.setSubtype(plaidAccount.getSubtype() != null ? plaidAccount.getSubtype().toString() : null);
+            account.setLastSyncedDate(now);
+            toSave.add(account);
+        }
+        plaidAccountRepository.saveAll(toSave);
+        plaidAccountRepository.deleteAll(existing.values());
+        logger.info("Synced {} accounts for Plaid item {} ({} removed).", toSave.size(), plaidItemId, existing.size());
+    }
+
+    @Transactional
+    public void deleteAccounts(String plaidItemId) {
+        if (plaidItemId != null) {
+            plaidAccountRepository.deleteAllByPlaidItemId(plaidItemId);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 // src/main/java/com/investingapp/backend/service/PlaidService.java
 package com.investingapp.backend.service;
 
+import com.investingapp.backend.config.PlaidResilienceInterceptor;
 import com.investingapp.backend.model.PendingPlaidConnection; // Import new entity
 import com.investingapp.backend.model.User;
 import com.investingapp.backend.repository.PendingPlaidConnectionRepository; // Import new repository
@@ -9,12 +10,18 @@ import com.investingapp.backend.service.EncryptionService;
 // Import for frequency enum
 import com.plaid.client.model.*;
 import com.plaid.client.request.PlaidApi;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional; // Import Transactional
+import org.springframework.transaction.support.TransactionTemplate;
+import retrofit2.Call;
+import retrofit2.Callback;
 import retrofit2.Response;
 
 import java.io.IOException;
@@ -24,6 +31,14 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 // Removed UUID, ConcurrentHashMap, TimeUnit as they are no longer needed for this part
 
 import com.investingapp.backend.dto.PaycheckSourceDto;
@@ -40,6 +55,9 @@ public class PlaidService {
     @Autowired
     private PlaidApi plaidApi;
 
+    @Autowired
+    private PlaidResilienceInterceptor plaidResilience;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -49,48 +67,152 @@ public class PlaidService {
     @Value("${plaid.client.name}")
     private String plaidClientName;
 
+    // Public URL of /api/plaid/webhook; when empty, Link tokens are created without a webhook
+    @Value("${plaid.webhook.url:}")
+    private String plaidWebhookUrl;
+
     @Autowired
     private EncryptionService encryptionService;
 
-    public List<PaycheckSourceDto> getRecurringIncome(String decryptedAccessToken) throws IOException {
-        logger.info("Fetching recurring income for an access token.");
-        List<PaycheckSourceDto> paycheckSources = new ArrayList<>();
+    @Autowired
+    private PlaidAccountService plaidAccountService;
 
-        // 1. Get all account IDs for the access token
-        AccountsGetRequest accountsRequest = new AccountsGetRequest().accessToken(decryptedAccessToken);
-        Response<AccountsGetResponse> accountsResponse = plaidApi.accountsGet(accountsRequest).execute();
+    @Autowired
+    private DecryptedTokenCache decryptedTokenCache;
+
+    // Async Plaid calls complete on OkHttp dispatcher threads; DB follow-up work is moved here so a slow
+    // MySQL write never holds one of OkHttp's per-host request slots.
+    @Value("${plaid.async.persistence-threads:8}")
+    private int persistenceThreads;
+
+    private ExecutorService persistenceExecutor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // @Transactional doesn't reach work run on the persistence pool, so that work opens its transaction here
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger threadCount = new AtomicInteger();
+        persistenceExecutor = Executors.newFixedThreadPool(persistenceThreads, runnable -> {
+            Thread thread = new Thread(runnable, "plaid-persist-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        persistenceExecutor.shutdown();
+    }
 
-        if (!accountsResponse.isSuccessful() || accountsResponse.body() == null) {
-            String errorBody = accountsResponse.errorBody() != null ? accountsResponse.errorBody().string() : "Unknown error fetching accounts";
-            logger.error("Plaid /accounts/get failed: {} - {}", accountsResponse.code(), errorBody);
-            throw new IOException("Failed to fetch accounts for income analysis: " + errorBody);
+    // plaidItemId may be null, in which case the account catalog is bypassed and /accounts/get is always called
+    public List<PaycheckSourceDto> getRecurringIncome(String plaidItemId, String decryptedAccessToken) throws IOException {
+        logger.info("Fetching recurring income for an access token.");
+
+        // 1. Get all account IDs for the item, from the local catalog when it is fresh
+        Optional<List<String>> cachedAccountIds = plaidAccountService.findFreshAccountIds(plaidItemId);
+        List<String> accountIds;
+        if (cachedAccountIds.isPresent()) {
+            accountIds = cachedAccountIds.get();
+        } else {
+            AccountsGetRequest accountsRequest = new AccountsGetRequest().accessToken(decryptedAccessToken);
+            AccountsGetResponse accountsResponse = execute(plaidApi.accountsGet(accountsRequest),
+                    "/accounts/get", "Failed to fetch accounts for income analysis");
+            accountIds = catalogAccounts(plaidItemId, accountsResponse);
         }
-        List<String> accountIds = accountsResponse.body().getAccounts().stream()
-                                    .map(AccountBase::getAccountId)
-                                    .collect(Collectors.toList());
 
         if (accountIds.isEmpty()) {
             logger.info("No accounts found for the given access token. Cannot fetch recurring income.");
             return Collections.emptyList();
         }
-        
+
         // 2. Fetch recurring transactions for these account IDs
-        TransactionsRecurringGetRequest recurringRequest = new TransactionsRecurringGetRequest()
-                .accessToken(decryptedAccessToken)
-                .accountIds(accountIds);
-        
         logger.debug("Calling Plaid /transactions/recurring/get for account IDs: {}", accountIds);
-        Response<TransactionsRecurringGetResponse> response = plaidApi.transactionsRecurringGet(recurringRequest).execute();
+        TransactionsRecurringGetResponse recurringData = execute(
+                plaidApi.transactionsRecurringGet(buildRecurringRequest(decryptedAccessToken, accountIds)),
+                "/transactions/recurring/get", "Plaid /transactions/recurring/get failed");
+        return toPaycheckSources(recurringData);
+    }
 
-        if (!response.isSuccessful() || response.body() == null) {
-            String errorBody = response.errorBody() != null ? response.errorBody().string() : "Unknown error";
-            logger.error("Plaid /transactions/recurring/get failed: {} - {}", response.code(), errorBody);
-            throw new IOException("Plaid /transactions/recurring/get failed: " + errorBody);
+    // Non-blocking variant: both Plaid calls go through Retrofit enqueue(), so no request thread waits on Plaid.
+    public CompletableFuture<List<PaycheckSourceDto>> getRecurringIncomeAsync(String plaidItemId, String decryptedAccessToken) {
+        logger.info("Fetching recurring income for an access token.");
+
+        // 1. Get all account IDs for the item, from the local catalog when it is fresh
+        return resolveAccountIdsAsync(plaidItemId, decryptedAccessToken)
+                .thenCompose(accountIds -> {
+                    if (accountIds.isEmpty()) {
+                        logger.info("No accounts found for the given access token. Cannot fetch recurring income.");
+                        return CompletableFuture.completedFuture(Collections.<PaycheckSourceDto>emptyList());
+                    }
+
+                    // 2. Fetch recurring transactions for these account IDs
+                    logger.debug("Calling Plaid /transactions/recurring/get for account IDs: {}", accountIds);
+                    return enqueue(plaidApi.transactionsRecurringGet(buildRecurringRequest(decryptedAccessToken, accountIds)),
+                                   "/transactions/recurring/get", "Plaid /transactions/recurring/get failed")
+                            .thenApply(this::toPaycheckSources);
+                });
+    }
+
+    private CompletableFuture<List<String>> resolveAccountIdsAsync(String plaidItemId, String decryptedAccessToken) {
+        Optional<List<String>> cachedAccountIds = plaidAccountService.findFreshAccountIds(plaidItemId);
+        if (cachedAccountIds.isPresent()) {
+            return CompletableFuture.completedFuture(cachedAccountIds.get());
         }
+        AccountsGetRequest accountsRequest = new AccountsGetRequest().accessToken(decryptedAccessToken);
+        return enqueue(plaidApi.accountsGet(accountsRequest), "/accounts/get", "Failed to fetch accounts for income analysis")
+                .thenApplyAsync(accountsResponse -> catalogAccounts(plaidItemId, accountsResponse), persistenceExecutor);
+    }
 
-        TransactionsRecurringGetResponse recurringData = response.body();
-        logger.info("Received {} inflow streams and {} outflow streams.", 
-            recurringData.getInflowStreams().size(), 
+    // Stores the /accounts/get result in the account catalog (when the item is known) and returns its account IDs
+    private List<String> catalogAccounts(String plaidItemId, AccountsGetResponse accountsResponse) {
+        if (plaidItemId != null) {
+            plaidAccountService.syncAccounts(plaidItemId, accountsResponse.getAccounts());
+        }
+        return accountsResponse.getAccounts().stream()
+                .map(AccountBase::getAccountId)
+                .collect(Collectors.toList());
+    }
+
+    // Populates the catalog right after a token exchange. Best effort: a failure here only means the first
+    // income lookup falls back to /accounts/get.
+    private void catalogAccountsAfterExchange(ItemPublicTokenExchangeResponse exchangeResponse) {
+        try {
+            AccountsGetRequest accountsRequest = new AccountsGetRequest().accessToken(exchangeResponse.getAccessToken());
+            catalogAccounts(exchangeResponse.getItemId(), execute(plaidApi.accountsGet(accountsRequest),
+                    "/accounts/get", "Failed to fetch accounts after token exchange"));
+        } catch (IOException e) {
+            logger.warn("Could not catalog accounts for Plaid item {} after exchange: {}", exchangeResponse.getItemId(), e.getMessage());
+        }
+    }
+
+    private CompletableFuture<ItemPublicTokenExchangeResponse> catalogAccountsAfterExchangeAsync(ItemPublicTokenExchangeResponse exchangeResponse) {
+        AccountsGetRequest accountsRequest = new AccountsGetRequest().accessToken(exchangeResponse.getAccessToken());
+        return enqueue(plaidApi.accountsGet(accountsRequest), "/accounts/get", "Failed to fetch accounts after token exchange")
+                .thenApplyAsync(accountsResponse -> catalogAccounts(exchangeResponse.getItemId(), accountsResponse), persistenceExecutor)
+                .handle((accountIds, ex) -> {
+                    if (ex != null) {
+                        logger.warn("Could not catalog accounts for Plaid item {} after exchange: {}",
+                                exchangeResponse.getItemId(), unwrapAsyncFailure(ex).getMessage());
+                    }
+                    return exchangeResponse;
+                });
+    }
+
+    private TransactionsRecurringGetRequest buildRecurringRequest(String decryptedAccessToken, List<String> accountIds) {
+        return new TransactionsRecurringGetRequest()
+                .accessToken(decryptedAccessToken)
+                .accountIds(accountIds);
+    }
+
+    private List<PaycheckSourceDto> toPaycheckSources(TransactionsRecurringGetResponse recurringData) {
+        List<PaycheckSourceDto> paycheckSources = new ArrayList<>();
+        logger.info("Received {} inflow streams and {} outflow streams.",
+            recurringData.getInflowStreams().size(),
             recurringData.getOutflowStreams().size());
 
         for (TransactionStream stream : recurringData.getInflowStreams()) {
@@ -99,10 +221,10 @@ public class PlaidService {
                 stream.getFrequency() != null &&
                 stream.getFrequency() != RecurringTransactionFrequency.UNKNOWN &&
                 stream.getFrequency() != RecurringTransactionFrequency.ANNUALLY /* Annually might not be a typical paycheck */) {
-                
+
                 PaycheckSourceDto dto = new PaycheckSourceDto();
                 dto.setAccountId(stream.getAccountId());
-                
+
                 // Use merchant name if available, otherwise description.
                 String name = stream.getMerchantName();
                 if (name == null || name.trim().isEmpty() || name.equalsIgnoreCase("null")) { // Plaid sometimes returns "null" as string
@@ -113,20 +235,20 @@ public class PlaidService {
                 if (stream.getLastAmount() != null && stream.getLastAmount().getAmount() != null) {
                     Double amountValue = stream.getLastAmount().getAmount();
                     // Convert to BigDecimal if your DTO expects BigDecimal, then take abs
-                    dto.setLastAmount(BigDecimal.valueOf(Math.abs(amountValue))); 
+                    dto.setLastAmount(BigDecimal.valueOf(Math.abs(amountValue)));
                 } else {
                     dto.setLastAmount(BigDecimal.ZERO);
                 }
-               
+
                 dto.setLastDate(stream.getLastDate() != null ? stream.getLastDate().toString() : "N/A");
                 dto.setFrequency(stream.getFrequency() != null ? stream.getFrequency().toString() : "UNKNOWN");
-                
+
                 paycheckSources.add(dto);
-                logger.debug("Identified potential paycheck source: Name='{}', AccountID='{}', LastAmt='{}', Freq='{}'", 
+                logger.debug("Identified potential paycheck source: Name='{}', AccountID='{}', LastAmt='{}', Freq='{}'",
                     dto.getName(), dto.getAccountId(), dto.getLastAmount(), dto.getFrequency());
             }
         }
-        
+
         if (paycheckSources.isEmpty()) {
             logger.info("No active, regularly recurring inflow streams identified as potential paychecks after filtering.");
         }
@@ -137,31 +259,32 @@ public class PlaidService {
     // createLinkTokenForAuthenticatedUser method remains the same...
     public LinkTokenCreateResponse createLinkTokenForAuthenticatedUser(String clientUserId) throws IOException {
         logger.info("Creating Plaid Link token for authenticated user ID: {}", clientUserId);
-        LinkTokenCreateRequestUser user = new LinkTokenCreateRequestUser().clientUserId(clientUserId);
-        List<Products> products = Arrays.asList(Products.AUTH, Products.TRANSACTIONS);
-        List<CountryCode> countryCodes = Arrays.asList(CountryCode.US);
-
-        LinkTokenCreateRequest request = new LinkTokenCreateRequest()
-                .user(user)
-                .clientName(plaidClientName)
-                .products(products)
-                .countryCodes(countryCodes)
-                .language("en");
+        return execute(plaidApi.linkTokenCreate(buildLinkTokenRequest(clientUserId)),
+                       "Link Token creation", "Plaid Link Token creation failed");
+    }
 
-        Response<LinkTokenCreateResponse> response = plaidApi.linkTokenCreate(request).execute();
-        if (!response.isSuccessful() || response.body() == null) {
-            String errorBody = response.errorBody() != null ? response.errorBody().string() : "Unknown error";
-            logger.error("Plaid Link Token creation failed: {} - {}", response.code(), errorBody);
-            throw new IOException("Plaid Link Token creation failed: " + errorBody);
-        }
-        return response.body();
+    public CompletableFuture<LinkTokenCreateResponse> createLinkTokenForAuthenticatedUserAsync(String clientUserId) {
+        logger.info("Creating Plaid Link token for authenticated user ID: {}", clientUserId);
+        return enqueue(plaidApi.linkTokenCreate(buildLinkTokenRequest(clientUserId)),
+                       "Link Token creation", "Plaid Link Token creation failed");
     }
 
 
     // createLinkTokenAnonymous method remains the same...
     public LinkTokenCreateResponse createLinkTokenAnonymous(String temporaryUserId) throws IOException {
         logger.info("Creating Plaid Link token for temporary user ID: {}", temporaryUserId);
-        LinkTokenCreateRequestUser user = new LinkTokenCreateRequestUser().clientUserId(temporaryUserId);
+        return execute(plaidApi.linkTokenCreate(buildLinkTokenRequest(temporaryUserId)),
+                       "Link Token creation (anonymous)", "Plaid Link Token creation (anonymous) failed");
+    }
+
+    public CompletableFuture<LinkTokenCreateResponse> createLinkTokenAnonymousAsync(String temporaryUserId) {
+        logger.info("Creating Plaid Link token for temporary user ID: {}", temporaryUserId);
+        return enqueue(plaidApi.linkTokenCreate(buildLinkTokenRequest(temporaryUserId)),
+                       "Link Token creation (anonymous)", "Plaid Link Token creation (anonymous) failed");
+    }
+
+    private LinkTokenCreateRequest buildLinkTokenRequest(String clientUserId) {
+        LinkTokenCreateRequestUser user = new LinkTokenCreateRequestUser().clientUserId(clientUserId);
         List<Products> products = Arrays.asList(Products.AUTH, Products.TRANSACTIONS);
         List<CountryCode> countryCodes = Arrays.asList(CountryCode.US);
 
@@ -171,57 +294,84 @@ public class PlaidService {
                 .products(products)
                 .countryCodes(countryCodes)
                 .language("en");
-
-        Response<LinkTokenCreateResponse> response = plaidApi.linkTokenCreate(request).execute();
-        if (!response.isSuccessful() || response.body() == null) {
-            String errorBody = response.errorBody() != null ? response.errorBody().string() : "Unknown error";
-            logger.error("Plaid Link Token creation (anonymous) failed: {} - {}", response.code(), errorBody);
-            throw new IOException("Plaid Link Token creation (anonymous) failed: " + errorBody);
+        if (plaidWebhookUrl != null && !plaidWebhookUrl.isEmpty()) {
+            request.webhook(plaidWebhookUrl);
         }
-        return response.body();
+        return request;
     }
 
-    // exchangePublicTokenAndLinkUser method remains the same...
-    @Transactional // Add transactional if multiple DB operations
+    // Not @Transactional: only the user update runs in a transaction, so no connection is held across Plaid calls
     public ItemPublicTokenExchangeResponse exchangePublicTokenAndLinkUser(String publicToken, User appUser) throws IOException {
         logger.info("Exchanging public token for user ID: {}", appUser.getId());
-        ItemPublicTokenExchangeRequest request = new ItemPublicTokenExchangeRequest().publicToken(publicToken);
-        Response<ItemPublicTokenExchangeResponse> response = plaidApi.itemPublicTokenExchange(request).execute();
+        ItemPublicTokenExchangeResponse exchangeResponse = execute(
+                plaidApi.itemPublicTokenExchange(new ItemPublicTokenExchangeRequest().publicToken(publicToken)),
+                "Public Token exchange for user " + appUser.getId(), "Plaid Public Token exchange failed");
+        transactionTemplate.executeWithoutResult(status -> linkItemToUser(exchangeResponse, appUser));
+        catalogAccountsAfterExchange(exchangeResponse);
+        return exchangeResponse;
+    }
 
-        if (!response.isSuccessful() || response.body() == null) {
-            String errorBody = response.errorBody() != null ? response.errorBody().string() : "Unknown error";
-            logger.error("Plaid Public Token exchange failed for user {}: {} - {}", appUser.getId(), response.code(), errorBody);
-            throw new IOException("Plaid Public Token exchange failed: " + errorBody);
-        }
+    // The Plaid exchange runs without holding a request thread; the user update then runs on the persistence pool.
+    public CompletableFuture<ItemPublicTokenExchangeResponse> exchangePublicTokenAndLinkUserAsync(String publicToken, User appUser) {
+        logger.info("Exchanging public token (async) for user ID: {}", appUser.getId());
+        return enqueue(plaidApi.itemPublicTokenExchange(new ItemPublicTokenExchangeRequest().publicToken(publicToken)),
+                       "Public Token exchange for user " + appUser.getId(), "Plaid Public Token exchange failed")
+                .thenApplyAsync(exchangeResponse -> transactionTemplate.execute(status -> {
+                    linkItemToUser(exchangeResponse, appUser);
+                    return exchangeResponse;
+                }), persistenceExecutor)
+                .thenCompose(this::catalogAccountsAfterExchangeAsync);
+    }
 
-        ItemPublicTokenExchangeResponse exchangeResponse = response.body();
+    private void linkItemToUser(ItemPublicTokenExchangeResponse exchangeResponse, User appUser) {
         String rawAccessToken = exchangeResponse.getAccessToken(); // Raw token from Plaid
 
         String encryptedAccessToken = encryptionService.encrypt(rawAccessToken);
 
+        // Re-linking replaces the item; drop anything cached for the previous one
+        String previousItemId = appUser.getPlaidItemId();
+        decryptedTokenCache.invalidate(appUser.getId(), previousItemId);
+        decryptedTokenCache.invalidate(appUser.getId(), exchangeResponse.getItemId());
+        if (previousItemId != null && !previousItemId.equals(exchangeResponse.getItemId())) {
+            plaidAccountService.deleteAccounts(previousItemId);
+        }
+
         appUser.setPlaidAccessToken(encryptedAccessToken);
         appUser.setPlaidItemId(exchangeResponse.getItemId());
         appUser.setPlaidLinked(true);
+        appUser.setIncomeRefreshedDate(null); // Stored income streams belong to the old item; refetch on next read
         userRepository.save(appUser);
         logger.info("Plaid item linked to user ID: {}", appUser.getId());
-        return exchangeResponse;
     }
 
 
-    // Modified to use the database repository
-    @Transactional
+    // Not @Transactional, for the same reason; storing the pending connection is a single save
     public void exchangePublicTokenAndStoreTemporarily(String publicToken, String temporaryUserId) throws IOException {
         logger.info("Exchanging public token for temporary user ID: {}", temporaryUserId);
-        ItemPublicTokenExchangeRequest request = new ItemPublicTokenExchangeRequest().publicToken(publicToken);
-        Response<ItemPublicTokenExchangeResponse> response = plaidApi.itemPublicTokenExchange(request).execute();
+        ItemPublicTokenExchangeResponse exchangeResponse = execute(
+                plaidApi.itemPublicTokenExchange(new ItemPublicTokenExchangeRequest().publicToken(publicToken)),
+                "Public Token exchange (anonymous)", "Plaid Public Token exchange (anonymous) failed");
+        storePendingConnection(exchangeResponse, temporaryUserId);
+        catalogAccountsAfterExchange(exchangeResponse);
+    }
 
-        if (!response.isSuccessful() || response.body() == null) {
-            String errorBody = response.errorBody() != null ? response.errorBody().string() : "Unknown error";
-            logger.error("Plaid Public Token exchange (anonymous) failed: {} - {}", response.code(), errorBody);
-            throw new IOException("Plaid Public Token exchange (anonymous) failed: " + errorBody);
-        }
+    public CompletableFuture<Void> exchangePublicTokenAndStoreTemporarilyAsync(String publicToken, String temporaryUserId) {
+        logger.info("Exchanging public token (async) for temporary user ID: {}", temporaryUserId);
+        return enqueue(plaidApi.itemPublicTokenExchange(new ItemPublicTokenExchangeRequest().publicToken(publicToken)),
+                       "Public Token exchange (anonymous)", "Plaid Public Token exchange (anonymous) failed")
+                .thenApplyAsync(exchangeResponse -> {
+                    try {
+                        storePendingConnection(exchangeResponse, temporaryUserId);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                    return exchangeResponse;
+                }, persistenceExecutor)
+                .thenCompose(this::catalogAccountsAfterExchangeAsync)
+                .thenAccept(exchangeResponse -> { });
+    }
 
-        ItemPublicTokenExchangeResponse exchangeResponse = response.body();
+    private void storePendingConnection(ItemPublicTokenExchangeResponse exchangeResponse, String temporaryUserId) throws IOException {
         String rawAccessToken = exchangeResponse.getAccessToken(); // Raw token from Plaid
         String itemId = exchangeResponse.getItemId();
 
@@ -253,7 +403,7 @@ public class PlaidService {
     public PendingPlaidConnection retrieveAndRemovePendingConnection(String temporaryUserId) {
         Optional<PendingPlaidConnection> optConnection = pendingPlaidConnectionRepository
                 .findByTemporaryUserIdAndStatus(temporaryUserId, PendingPlaidConnection.Status.PENDING_ACCOUNT_CREATION);
-    
+
         if (optConnection.isPresent()) {
             PendingPlaidConnection connection = optConnection.get();
             if (connection.isExpired()) {
@@ -262,7 +412,7 @@ public class PlaidService {
                 pendingPlaidConnectionRepository.save(connection);
                 return null;
             }
-    
+
             // --- DECRYPT THE ACCESS TOKEN ---
             String encryptedAccessToken = connection.getPlaidAccessToken();
             String rawAccessToken;
@@ -277,8 +427,8 @@ public class PlaidService {
                 return null;
             }
             // Set the raw token back on the object being returned (or a DTO)
-            connection.setPlaidAccessToken(rawAccessToken); 
-    
+            connection.setPlaidAccessToken(rawAccessToken);
+
             pendingPlaidConnectionRepository.delete(connection);
             logger.info("Retrieved, decrypted, and removed pending Plaid connection from DB for {}", temporaryUserId);
             return connection;
@@ -286,4 +436,114 @@ public class PlaidService {
         logger.info("No PENDING Plaid connection found in DB for temporary ID: {}", temporaryUserId);
         return null;
     }
-}
\ No newline at end of file
+
+    // Unwraps CompletionException/ExecutionException so callers see the original Plaid or DB failure.
+    public static Throwable unwrapAsyncFailure(Throwable throwable) {
+        Throwable cause = throwable;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    // Synchronous path: blocks the calling thread on Retrofit execute().
+    private <T> T execute(Call<T> call, String operation, String failureMessage) throws IOException {
+        Response<T> response = call.execute();
+        if (!response.isSuccessful() || response.body() == null) {
+            throw failure(response, operation, failureMessage);
+        }
+        return response.body();
+    }
+
+    // Bridges Retrofit's callback API to a CompletableFuture. Non-2xx responses fail the future with an
+    // IOException carrying Plaid's error body, matching what the synchronous execute() path used to throw.
+    // Each attempt is admitted by the resilience policy without blocking (it may wait for a concurrency slot as a
+    // callback), and a transient failure the policy allows to retry is re-issued as a clone of the call after its
+    // backoff, on a delayed executor rather than a sleeping thread.
+    <T> CompletableFuture<T> enqueue(Call<T> call, String operation, String failureMessage) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        AtomicReference<Call<T>> currentCall = new AtomicReference<>(call);
+        // If the caller gives up (e.g. an MVC async timeout cancels the future) stop the HTTP call as well.
+        future.whenComplete((result, ex) -> {
+            if (future.isCancelled()) {
+                currentCall.get().cancel();
+            }
+        });
+        enqueueAttempt(call, 1, operation, failureMessage, future, currentCall);
+        return future;
+    }
+
+    private <T> void enqueueAttempt(Call<T> call, int attempt, String operation, String failureMessage,
+                                    CompletableFuture<T> future, AtomicReference<Call<T>> currentCall) {
+        String endpoint = call.request().url().encodedPath();
+        plaidResilience.admitAsync(endpoint).whenComplete((permit, rejection) -> {
+            if (rejection != null) {
+                logger.error("Plaid {} failed: {}", operation, rejection.getMessage());
+                future.completeExceptionally(rejection);
+                return;
+            }
+            if (future.isDone()) { // Cancelled while waiting for a slot
+                permit.cancel();
+                return;
+            }
+            currentCall.set(call);
+            call.enqueue(new Callback<T>() {
+                @Override
+                public void onResponse(Call<T> c, Response<T> response) {
+                    permit.onResponse(response.code());
+                    if (response.isSuccessful() && response.body() != null) {
+                        future.complete(response.body());
+                        return;
+                    }
+                    long delayMs = plaidResilience.retryDelayMs(endpoint, attempt, response.code(),
+                            response.headers().get("Retry-After"));
+                    if (delayMs >= 0 && !future.isDone()) {
+                        if (response.errorBody() != null) {
+                            response.errorBody().close();
+                        }
+                        retryLater(call, attempt, delayMs, operation, failureMessage, future, currentCall);
+                        return;
+                    }
+                    future.completeExceptionally(failure(response, operation, failureMessage));
+                }
+
+                @Override
+                public void onFailure(Call<T> c, Throwable t) {
+                    if (c.isCanceled()) {
+                        permit.cancel();
+                        future.cancel(false);
+                        return;
+                    }
+                    permit.onFailure();
+                    long delayMs = t instanceof IOException ? plaidResilience.retryDelayMs(endpoint, attempt, -1, null) : -1;
+                    if (delayMs >= 0 && !future.isDone()) {
+                        retryLater(call, attempt, delayMs, operation, failureMessage, future, currentCall);
+                        return;
+                    }
+                    logger.error("Plaid {} failed: {}", operation, t.getMessage());
+                    future.completeExceptionally(t instanceof IOException ? t : new IOException(failureMessage + ": " + t.getMessage(), t));
+                }
+            });
+            if (future.isCancelled()) { // Cancelled between the check above and enqueue()
+                call.cancel();
+            }
+        });
+    }
+
+    private <T> void retryLater(Call<T> call, int attempt, long delayMs, String operation, String failureMessage,
+                                CompletableFuture<T> future, AtomicReference<Call<T>> currentCall) {
+        CompletableFuture.runAsync(() -> enqueueAttempt(call.clone(), attempt + 1, operation, failureMessage, future, currentCall),
+                CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS));
+    }
+
+    private IOException failure(Response<?> response, String operation, String failureMessage) {
+        String errorBody;
+        try {
+            errorBody = response.errorBody() != null ? response.errorBody().string() : "Unknown error";
+        } catch (IOException e) {
+            errorBody = "Unreadable error body: " + e.getMessage();
+        }
+        logger.error("Plaid {} failed: {} - {}", operation, response.code(), errorBody);
+        return new IOException(failureMessage + ": " + errorBody);
+    }
+}
@@ -0,0 +1,148 @@
+// src/main/java/com/investingapp/backend/service/PlaidWebhookDispatcher.java
+package com.investingapp.backend.service;
+
+import com.investingapp.backend.dto.PaycheckSourceDto;
+import com.investingapp.backend.dto.PlaidWebhookEvent;
+import com.investingapp.backend.model.User;
+import com.investingapp.backend.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded in-process queue for verified Plaid webhooks. The controller only enqueues and acknowledges;
+ * worker threads then refresh the stored income data for the affected item. When the queue
+ * is full {@link #submit} returns false so the controller can answer 503 and let Plaid retry later.
+ */
+@Service
+public class PlaidWebhookDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaidWebhookDispatcher.class);
+
+    private final IncomeRefreshService incomeRefreshService;
+    private final PlaidAccountService plaidAccountService;
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${plaid.webhook.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${plaid.webhook.workers:2}")
+    private int workers;
+
+    private ThreadPoolExecutor executor;
+    private Counter rejectedCounter;
+    private Timer handleTimer;
+
+    @Autowired
+    public PlaidWebhookDispatcher(IncomeRefreshService incomeRefreshService,
+                                  PlaidAccountService plaidAccountService,
+                                  UserRepository userRepository,
+                                  MeterRegistry meterRegistry) {
+        this.incomeRefreshService = incomeRefreshService;
+        this.plaidAccountService = plaidAccountService;
+        this.userRepository = userRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        // AbortPolicy: a full queue rejects immediately instead of blocking the request thread
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "plaid-webhook-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("plaid.webhook.queue.depth", executor, e -> e.getQueue().size())
+                .description("Plaid webhooks waiting for a worker")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("plaid.webhook.rejected")
+                .description("Plaid webhooks rejected because the queue was full")
+                .register(meterRegistry);
+        handleTimer = Timer.builder("plaid.webhook.handle")
+                .description("Time spent handling a Plaid webhook on a worker thread")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            logger.warn("Plaid webhook workers did not finish in time; {} queued webhooks dropped.", executor.getQueue().size());
+            executor.shutdownNow();
+        }
+    }
+
+    public boolean submit(PlaidWebhookEvent event) {
+        try {
+            executor.execute(() -> handleTimer.record(() -> handle(event)));
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            logger.warn("Plaid webhook queue full ({}); rejecting {} {} for item {}.",
+                    queueCapacity, event.getWebhookType(), event.getWebhookCode(), event.getItemId());
+            return false;
+        }
+    }
+
+    private void handle(PlaidWebhookEvent event) {
+        String itemId = event.getItemId();
+        logger.info("Handling Plaid webhook {} {} for item {}", event.getWebhookType(), event.getWebhookCode(), itemId);
+        if (itemId == null) {
+            return;
+        }
+        try {
+            switch (event.getWebhookType() + ":" + event.getWebhookCode()) {
+                case "TRANSACTIONS:SYNC_UPDATES_AVAILABLE",
+                     "TRANSACTIONS:RECURRING_TRANSACTIONS_UPDATE",
+                     "TRANSACTIONS:DEFAULT_UPDATE",
+                     "TRANSACTIONS:HISTORICAL_UPDATE" -> refreshIncome(itemId);
+                case "ITEM:NEW_ACCOUNTS_AVAILABLE" -> {
+                    // Force the next income read to re-sync the account catalog from /accounts/get
+                    plaidAccountService.deleteAccounts(itemId);
+                }
+                case "ITEM:ERROR", "ITEM:PENDING_EXPIRATION", "ITEM:USER_PERMISSION_REVOKED" ->
+                    logger.warn("Plaid item {} reported {} (error code: {}).",
+                            itemId, event.getWebhookCode(), event.getErrorCode());
+                default -> logger.debug("Ignoring Plaid webhook {} {}", event.getWebhookType(), event.getWebhookCode());
+            }
+        } catch (Exception e) {
+            // Plaid has already been acknowledged; the next user read or webhook will retry
+            logger.error("Failed to handle Plaid webhook {} {} for item {}: {}",
+                    event.getWebhookType(), event.getWebhookCode(), itemId, e.getMessage(), e);
+        }
+    }
+
+    private void refreshIncome(String itemId) {
+        Optional<User> user = userRepository.findByPlaidItemId(itemId);
+        if (user.isEmpty()) {
+            // Item still belongs to a pending anonymous connection; no income is stored for it yet
+            logger.debug("No user linked to Plaid item {}; skipping income refresh.", itemId);
+            return;
+        }
+        // Stores the fetched streams in income_streams, where /api/income reads them
+        List<PaycheckSourceDto> paycheckSources = incomeRefreshService.refreshUserAsync(user.get()).join();
+        logger.info("Refreshed recurring income for Plaid item {} from webhook ({} sources).", itemId, paycheckSources.size());
+    }
+}
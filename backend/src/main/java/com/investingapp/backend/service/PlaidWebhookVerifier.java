@@ -0,0 +1,145 @@
+// src/main/java/com/investingapp/backend/service/PlaidWebhookVerifier.java
+package com.investingapp.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.plaid.client.model.JWKPublicKey;
+import com.plaid.client.model.WebhookVerificationKeyGetRequest;
+import com.plaid.client.model.WebhookVerificationKeyGetResponse;
+import com.plaid.client.request.PlaidApi;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import retrofit2.Response;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+// Verifies the Plaid-Verification JWT on incoming webhooks (ES256, key fetched by kid from Plaid and cached).
+// See https://plaid.com/docs/api/webhooks/webhook-verification/
+@Service
+public class PlaidWebhookVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaidWebhookVerifier.class);
+    private static final long MAX_WEBHOOK_AGE_SECONDS = 5 * 60;
+
+    private final PlaidApi plaidApi;
+    private final ObjectMapper objectMapper;
+
+    // Verification keys rarely rotate; caching them keeps the webhook ack path free of Plaid round trips
+    private final Cache<String, PublicKey> verificationKeyCache = Caffeine.newBuilder()
+            .expireAfterWrite(24, TimeUnit.HOURS)
+            .maximumSize(100)
+            .build();
+
+    @Value("${plaid.webhook.verification-enabled:true}")
+    private boolean verificationEnabled;
+
+    @Autowired
+    public PlaidWebhookVerifier(PlaidApi plaidApi, ObjectMapper objectMapper) {
+        this.plaidApi = plaidApi;
+        this.objectMapper = objectMapper;
+    }
+
+    public boolean verify(String rawBody, String verificationJwt) {
+        if (!verificationEnabled) {
+            return true;
+        }
+        if (verificationJwt == null || verificationJwt.isEmpty()) {
+            logger.warn("Rejecting Plaid webhook: missing Plaid-Verification header.");
+            return false;
+        }
+        try {
+            JsonNode header = objectMapper.readTree(Base64.getUrlDecoder().decode(verificationJwt.split("\\.")[0]));
+            // Only ES256 is accepted, so a forged header can't downgrade the algorithm
+            if (!"ES256".equals(header.path("alg").asText())) {
+                logger.warn("Rejecting Plaid webhook: unexpected JWT alg '{}'.", header.path("alg").asText());
+                return false;
+            }
+            String keyId = header.path("kid").asText(null);
+            PublicKey publicKey = keyId != null ? verificationKeyCache.get(keyId, this::fetchVerificationKey) : null;
+            if (publicKey == null) {
+                logger.warn("Rejecting Plaid webhook: no usable verification key for kid {}.", keyId);
+                return false;
+            }
+
+            Claims claims = Jwts.parserBuilder()
+                    .setSigningKey(publicKey)
+                    .build()
+                    .parseClaimsJws(verificationJwt)
+                    .getBody();
+
+            if (claims.getIssuedAt() == null
+                    || claims.getIssuedAt().toInstant().isBefore(Instant.now().minusSeconds(MAX_WEBHOOK_AGE_SECONDS))) {
+                logger.warn("Rejecting Plaid webhook: JWT issued at {} is too old.", claims.getIssuedAt());
+                return false;
+            }
+
+            String expectedBodyHash = claims.get("request_body_sha256", String.class);
+            String actualBodyHash = HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(rawBody.getBytes(StandardCharsets.UTF_8)));
+            if (expectedBodyHash == null || !MessageDigest.isEqual(
+                    expectedBodyHash.getBytes(StandardCharsets.UTF_8), actualBodyHash.getBytes(StandardCharsets.UTF_8))) {
+                logger.warn("Rejecting Plaid webhook: request body hash does not match.");
+                return false;
+            }
+            return true;
+        } catch (JwtException | IllegalArgumentException | IOException | GeneralSecurityException e) {
+            logger.warn("Rejecting Plaid webhook: verification failed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    // Returns null (not cached by Caffeine) if the key can't be fetched or has expired
+    private PublicKey fetchVerificationKey(String keyId) {
+        try {
+            Response<WebhookVerificationKeyGetResponse> response = plaidApi.webhookVerificationKeyGet(
+                    new WebhookVerificationKeyGetRequest().keyId(keyId)).execute();
+            if (!response.isSuccessful() || response.body() == null) {
+                String errorBody = response.errorBody() != null ? response.errorBody().string() : "Unknown error";
+                logger.error("Plaid /webhook_verification_key/get failed: {} - {}", response.code(), errorBody);
+                return null;
+            }
+            JWKPublicKey jwk = response.body().getKey();
+            if (jwk.getExpiredAt() != null && jwk.getExpiredAt() <= Instant.now().getEpochSecond()) {
+                logger.warn("Plaid webhook verification key {} has expired.", keyId);
+                return null;
+            }
+            return toEcPublicKey(jwk);
+        } catch (IOException | GeneralSecurityException e) {
+            logger.error("Could not load Plaid webhook verification key {}: {}", keyId, e.getMessage());
+            return null;
+        }
+    }
+
+    private static PublicKey toEcPublicKey(JWKPublicKey jwk) throws GeneralSecurityException {
+        AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+        parameters.init(new ECGenParameterSpec("secp256r1")); // P-256, as used by ES256
+        ECParameterSpec curve = parameters.getParameterSpec(ECParameterSpec.class);
+        ECPoint point = new ECPoint(
+                new BigInteger(1, Base64.getUrlDecoder().decode(jwk.getX())),
+                new BigInteger(1, Base64.getUrlDecoder().decode(jwk.getY())));
+        return KeyFactory.getInstance("EC").generatePublic(new ECPublicKeySpec(point, curve));
+    }
+}
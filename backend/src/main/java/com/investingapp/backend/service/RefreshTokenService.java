@@ -0,0 +1,150 @@
+// src/main/java/com/investingapp/backend/service/RefreshTokenService.java
+package com.investingapp.backend.service;
+
+import com.investingapp.backend.model.RefreshToken;
+import com.investingapp.backend.repository.RefreshTokenRepository;
+import com.investingapp.backend.repository.UserRepository;
+import com.investingapp.backend.security.jwt.JwtUtils;
+import com.investingapp.backend.security.jwt.TokenRevocationService;
+import com.investingapp.backend.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Issues short-lived access tokens together with rotating refresh tokens.
+ *
+ * A refresh token is an opaque random string; only its SHA-256 hash is stored. Each refresh consumes the
+ * presented token and issues a new one in the same family. If a consumed token is presented again, someone
+ * else holds a copy, so the whole family is revoked along with the access tokens recently issued from it.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    public record IssuedTokens(String accessToken, String refreshToken, UserDetailsImpl principal) {}
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final JwtUtils jwtUtils;
+    private final TokenRevocationService tokenRevocationService;
+    private final SecureRandom random = new SecureRandom();
+
+    @Value("${jwt.refresh-token.expiration-days:30}")
+    private long refreshTokenExpirationDays;
+
+    @Autowired
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserRepository userRepository,
+                               JwtUtils jwtUtils,
+                               TokenRevocationService tokenRevocationService) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.jwtUtils = jwtUtils;
+        this.tokenRevocationService = tokenRevocationService;
+    }
+
+    /** Starts a new token family, e.g. after a login or passkey registration. */
+    @Transactional
+    public IssuedTokens issue(UserDetailsImpl principal) {
+        return issueInFamily(principal, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchanges a refresh token for a new access/refresh token pair. Returns empty if the token is unknown,
+     * expired or revoked; a token that was already rotated also revokes its family.
+     */
+    @Transactional
+    public Optional<IssuedTokens> rotate(String refreshToken) {
+        Optional<RefreshToken> stored = refreshTokenRepository.findByTokenHash(hash(refreshToken));
+        if (stored.isEmpty()) {
+            return Optional.empty();
+        }
+        RefreshToken current = stored.get();
+        LocalDateTime now = LocalDateTime.now();
+        if (current.getExpireDate().isBefore(now)) {
+            return Optional.empty();
+        }
+        // Conditional update: of two concurrent refreshes with the same token only one can win
+        if (current.getRevokedDate() != null || refreshTokenRepository.markRotated(current.getId(), now) == 0) {
+            logger.warn("Refresh token reuse detected for user {} (family {}); revoking the family.",
+                    current.getUser().getId(), current.getFamilyId());
+            revokeFamily(current.getFamilyId());
+            return Optional.empty();
+        }
+        UserDetailsImpl principal = UserDetailsImpl.build(current.getUser()); // Fresh roles on every refresh
+        return Optional.of(issueInFamily(principal, current.getFamilyId()));
+    }
+
+    /** Logout: revokes the refresh token's family and, if given, the access token presented with it. */
+    @Transactional
+    public void logout(String refreshToken, Claims accessClaims) {
+        if (refreshToken != null) {
+            refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                    .ifPresent(stored -> refreshTokenRepository.revokeFamily(stored.getFamilyId(), LocalDateTime.now()));
+        }
+        if (accessClaims != null) {
+            tokenRevocationService.revoke(accessClaims.getId(), accessClaims.getExpiration());
+        }
+    }
+
+    @Scheduled(cron = "${jwt.refresh-token.purge-cron:0 15 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        logger.info("Purged {} expired refresh tokens.", purged);
+    }
+
+    private IssuedTokens issueInFamily(UserDetailsImpl principal, String familyId) {
+        String accessJti = UUID.randomUUID().toString();
+        String accessToken = jwtUtils.generateJwtToken(principal, accessJti);
+
+        byte[] tokenBytes = new byte[32];
+        random.nextBytes(tokenBytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(tokenBytes);
+        refreshTokenRepository.save(new RefreshToken(
+                userRepository.getReferenceById(principal.getId()),
+                hash(refreshToken),
+                familyId,
+                LocalDateTime.now().plusDays(refreshTokenExpirationDays),
+                accessJti));
+        return new IssuedTokens(accessToken, refreshToken, principal);
+    }
+
+    // Only access tokens that can still be alive need revoking
+    private void revokeFamily(String familyId) {
+        LocalDateTime now = LocalDateTime.now();
+        refreshTokenRepository.revokeFamily(familyId, now);
+        long accessTtlMs = jwtUtils.getJwtExpirationMs();
+        Date accessExpiresBy = new Date(System.currentTimeMillis() + accessTtlMs);
+        for (String jti : refreshTokenRepository.findRecentAccessJtis(familyId, now.minusNanos(accessTtlMs * 1_000_000))) {
+            tokenRevocationService.revoke(jti, accessExpiresBy);
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,289 @@
+// src/main/java/com/investingapp/backend/service/TokenReEncryptionJob.java
+package com.investingapp.backend.service;
+
+import com.investingapp.backend.model.RefreshLease;
+import com.investingapp.backend.model.User;
+import com.investingapp.backend.repository.RefreshLeaseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Re-encrypts stored Plaid access tokens under the current key version after a key rotation (or to move legacy
+ * ECB values to AES-GCM).
+ *
+ * Each table is walked in keyset-paged chunks of (id, token) pairs read with plain JDBC, so no entities are
+ * loaded. Tokens that need it are re-encrypted by a small worker pool and written back with one JDBC batch per
+ * chunk. The UPDATE only applies if the row still holds the value that was read, so a concurrent relink wins.
+ * Progress is checkpointed on the table's refresh_leases row ("reencrypt:<table>:v<version>"): a node that dies
+ * leaves the lease to expire and the next owner resumes after the last checkpoint. Once every row of a table
+ * is done for a key version its lease is completed and never picked up again. If any row failed to re-encrypt,
+ * the lease is released instead, checkpointed just before the first failed row, so a later run retries it.
+ *
+ * Only one database connection is used at a time. During business hours the job pauses between chunks so it
+ * doesn't compete with request traffic for the connection pool.
+ */
+@Service
+public class TokenReEncryptionJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenReEncryptionJob.class);
+    private static final String LEASE_PREFIX = "reencrypt:";
+    // Passed as tryAcquire's dueBefore: no completedDate is older, so a completed lease is never due again
+    private static final LocalDateTime NEVER_DUE = LocalDateTime.of(1970, 1, 1, 0, 0);
+    // Fixed table names, never user input, so concatenating them into SQL is safe
+    private static final String USERS_TABLE = "users";
+    private static final List<String> TABLES = List.of(USERS_TABLE, "pending_plaid_connections");
+
+    private record Row(long id, String token) {}
+
+    // Rows of a chunk to write back, and the rows that failed to re-encrypt (firstFailedId is null if none did)
+    private record ChunkResult(List<Object[]> updates, int failures, Long firstFailedId) {}
+
+    private final EncryptionService encryptionService;
+    private final JdbcTemplate jdbcTemplate;
+    private final RefreshLeaseRepository refreshLeaseRepository;
+    private final MeterRegistry meterRegistry;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Value("${encryption.reencrypt.enabled:true}")
+    private boolean enabled;
+
+    @Value("${encryption.reencrypt.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${encryption.reencrypt.parallelism:4}")
+    private int parallelism;
+
+    @Value("${encryption.reencrypt.lease-minutes:10}")
+    private long leaseMinutes;
+
+    @Value("${encryption.reencrypt.business-hours-start:08:00}")
+    private String businessHoursStartValue;
+
+    @Value("${encryption.reencrypt.business-hours-end:20:00}")
+    private String businessHoursEndValue;
+
+    @Value("${encryption.reencrypt.business-hours-zone:America/New_York}")
+    private String businessHoursZoneValue;
+
+    @Value("${encryption.reencrypt.business-hours-pause-ms:1000}")
+    private long businessHoursPauseMs;
+
+    @Value("${encryption.reencrypt.off-hours-pause-ms:50}")
+    private long offHoursPauseMs;
+
+    private final String nodeId;
+    private LocalTime businessHoursStart;
+    private LocalTime businessHoursEnd;
+    private ZoneId businessHoursZone;
+    private ExecutorService workers;
+    private Counter reEncrypted;
+    private Counter skipped;
+    private Counter failed;
+
+    @Autowired
+    public TokenReEncryptionJob(EncryptionService encryptionService,
+                                JdbcTemplate jdbcTemplate,
+                                RefreshLeaseRepository refreshLeaseRepository,
+                                MeterRegistry meterRegistry,
+                                EntityManagerFactory entityManagerFactory) {
+        this.encryptionService = encryptionService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.refreshLeaseRepository = refreshLeaseRepository;
+        this.meterRegistry = meterRegistry;
+        this.entityManagerFactory = entityManagerFactory;
+        this.nodeId = hostName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @PostConstruct
+    public void init() {
+        businessHoursStart = LocalTime.parse(businessHoursStartValue);
+        businessHoursEnd = LocalTime.parse(businessHoursEndValue);
+        businessHoursZone = ZoneId.of(businessHoursZoneValue);
+        AtomicInteger threadCount = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "token-reencrypt-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        reEncrypted = Counter.builder("encryption.reencrypt.rows").tag("result", "reencrypted").register(meterRegistry);
+        skipped = Counter.builder("encryption.reencrypt.rows").tag("result", "skipped").register(meterRegistry);
+        failed = Counter.builder("encryption.reencrypt.rows").tag("result", "failed").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${encryption.reencrypt.poll-interval-ms:300000}",
+            initialDelayString = "${encryption.reencrypt.initial-delay-ms:120000}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        for (String table : TABLES) {
+            String leaseId = LEASE_PREFIX + table + ":v" + encryptionService.getCurrentKeyVersion();
+            refreshLeaseRepository.insertIfMissing(leaseId);
+            LocalDateTime now = LocalDateTime.now();
+            // The next rotation gets a new lease id, so there is no need to ever redo a completed table
+            if (refreshLeaseRepository.tryAcquire(leaseId, nodeId, now, now.plusMinutes(leaseMinutes), NEVER_DUE) == 0) {
+                continue;
+            }
+            try {
+                Long firstFailedId = reEncryptTable(table, leaseId);
+                if (firstFailedId == null) {
+                    refreshLeaseRepository.complete(leaseId, nodeId, LocalDateTime.now());
+                } else {
+                    // Some rows are still on an old key: not done, so a later run resumes at the first of them
+                    refreshLeaseRepository.checkpoint(leaseId, nodeId, firstFailedId - 1, LocalDateTime.now());
+                    refreshLeaseRepository.release(leaseId, nodeId);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                refreshLeaseRepository.release(leaseId, nodeId);
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Re-encryption of {} failed: {}", table, e.getMessage(), e);
+                refreshLeaseRepository.release(leaseId, nodeId);
+            }
+        }
+    }
+
+    // Returns the lowest ID that failed to re-encrypt, or null if the whole table is done
+    private Long reEncryptTable(String table, String leaseId) throws InterruptedException {
+        long start = System.currentTimeMillis();
+        Long checkpoint = refreshLeaseRepository.findById(leaseId).map(RefreshLease::getCheckpoint).orElse(null);
+        long afterId = checkpoint != null ? checkpoint : 0L;
+        long resumedFrom = afterId;
+        int updated = 0;
+        int failures = 0;
+        Long firstFailedId = null;
+
+        while (true) {
+            List<Row> chunk = jdbcTemplate.query(
+                    "SELECT id, plaid_access_token FROM " + table
+                            + " WHERE id > ? AND plaid_access_token IS NOT NULL ORDER BY id LIMIT ?",
+                    (rs, rowNum) -> new Row(rs.getLong(1), rs.getString(2)),
+                    afterId, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+
+            ChunkResult result = reEncryptChunk(chunk);
+            List<Object[]> updates = result.updates();
+            failures += result.failures();
+            if (firstFailedId == null) {
+                firstFailedId = result.firstFailedId();
+            }
+            if (!updates.isEmpty()) {
+                int[][] counts = jdbcTemplate.batchUpdate(
+                        "UPDATE " + table + " SET plaid_access_token = ? WHERE id = ? AND plaid_access_token = ?",
+                        updates, updates.size(), (ps, update) -> {
+                            ps.setString(1, (String) update[0]);
+                            ps.setLong(2, (Long) update[1]);
+                            ps.setString(3, (String) update[2]);
+                        });
+                for (int[] batch : counts) {
+                    for (int count : batch) {
+                        updated += Math.max(count, 0);
+                    }
+                }
+                // JDBC writes bypass Hibernate, so drop the rows from the second-level cache explicitly
+                if (USERS_TABLE.equals(table)) {
+                    for (Object[] update : updates) {
+                        entityManagerFactory.getCache().evict(User.class, update[1]);
+                    }
+                }
+            }
+
+            afterId = chunk.get(chunk.size() - 1).id();
+            if (refreshLeaseRepository.checkpoint(leaseId, nodeId, afterId, LocalDateTime.now().plusMinutes(leaseMinutes)) == 0) {
+                throw new IllegalStateException("Lost lease " + leaseId + " to another node");
+            }
+            Thread.sleep(pauseMs());
+        }
+        logger.info("Re-encrypted {} rows of {} under key v{} in {} ms (resumed after id {}, node {})",
+                updated, table, encryptionService.getCurrentKeyVersion(), System.currentTimeMillis() - start,
+                resumedFrom, nodeId);
+        if (failures > 0) {
+            logger.error("{} rows of {} could not be re-encrypted under key v{}; leaving the table to be retried from id {}",
+                    failures, table, encryptionService.getCurrentKeyVersion(), firstFailedId);
+        }
+        return firstFailedId;
+    }
+
+    // Decrypt/encrypt is CPU-bound, so it is spread across the workers; the database is only touched by the caller
+    private ChunkResult reEncryptChunk(List<Row> chunk) {
+        List<CompletableFuture<Object[]>> futures = new ArrayList<>(chunk.size());
+        List<Long> pendingIds = new ArrayList<>(chunk.size()); // Row ID of each future, in ascending order
+        for (Row row : chunk) {
+            if (!encryptionService.needsReEncryption(row.token())) {
+                skipped.increment();
+                continue;
+            }
+            pendingIds.add(row.id());
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    String reEncryptedToken = encryptionService.encrypt(encryptionService.decrypt(row.token()));
+                    return new Object[]{reEncryptedToken, row.id(), row.token()};
+                } catch (RuntimeException e) {
+                    logger.warn("Could not re-encrypt token of row {}: {}", row.id(), e.getMessage());
+                    return null;
+                }
+            }, workers));
+        }
+        List<Object[]> updates = new ArrayList<>(futures.size());
+        int failures = 0;
+        Long firstFailedId = null;
+        for (int i = 0; i < futures.size(); i++) {
+            Object[] update = futures.get(i).join();
+            if (update != null) {
+                updates.add(update);
+                reEncrypted.increment();
+            } else {
+                failed.increment();
+                failures++;
+                if (firstFailedId == null) {
+                    firstFailedId = pendingIds.get(i);
+                }
+            }
+        }
+        return new ChunkResult(updates, failures, firstFailedId);
+    }
+
+    private long pauseMs() {
+        LocalTime now = LocalTime.now(businessHoursZone);
+        boolean businessHours = !now.isBefore(businessHoursStart) && now.isBefore(businessHoursEnd);
+        return businessHours ? businessHoursPauseMs : offHoursPauseMs;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown-host";
+        }
+    }
+}
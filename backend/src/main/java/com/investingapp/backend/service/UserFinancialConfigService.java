@@ -1,6 +1,7 @@
 // src/main/java/com/investingapp/backend/service/UserFinancialConfigService.java
 package com.investingapp.backend.service;
 
+import com.investingapp.backend.dto.PaycheckConfigDto;
 import com.investingapp.backend.dto.SelectedPaycheckDto;
 import com.investingapp.backend.model.User;
 import com.investingapp.backend.model.UserPaycheckConfig;
@@ -9,48 +10,126 @@ import com.investingapp.backend.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @Service
 public class UserFinancialConfigService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserFinancialConfigService.class);
 
+    /** A user's saved configurations plus a strong ETag derived from their content. */
+    public record PaycheckConfigs(List<PaycheckConfigDto> configs, String etag) {}
+
     private final UserPaycheckConfigRepository paycheckConfigRepository;
     private final UserRepository userRepository; // If needed to update User entity flags
+    private final JdbcTemplate jdbcTemplate;
 
     @Autowired
     public UserFinancialConfigService(UserPaycheckConfigRepository paycheckConfigRepository,
-                                      UserRepository userRepository) {
+                                      UserRepository userRepository,
+                                      JdbcTemplate jdbcTemplate) {
         this.paycheckConfigRepository = paycheckConfigRepository;
         this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * The user's saved paycheck configurations, read from the database on every call (a single projection query
+     * on the user_id index). Not cached in memory: a per-node cache only learns of saves made on that node, so
+     * with more than one instance it would serve, and hand out ETags for, another node's stale copy.
+     */
+    public PaycheckConfigs getPaycheckConfigurations(Long userId) {
+        List<PaycheckConfigDto> configs = List.copyOf(paycheckConfigRepository.findConfigDtosByUserId(userId));
+        return new PaycheckConfigs(configs, etagOf(configs));
     }
 
+    /**
+     * Brings the user's paycheck configurations in line with the selection, matched by accountId: new accounts
+     * are inserted, changed ones updated, and deselected ones deleted. Unchanged rows cost nothing.
+     *
+     * UserPaycheckConfig uses IDENTITY ids, which stops Hibernate from batching inserts, so inserts and updates
+     * go through JdbcTemplate batches (one round trip each; MySQL rewrites the insert batch into a single
+     * multi-row INSERT). Deletes are a single DELETE ... WHERE id IN (...). Everything runs in the caller's
+     * JPA transaction.
+     */
     @Transactional
     public void saveUserPaycheckConfigurations(User user, List<SelectedPaycheckDto> selectedPaychecks) {
         logger.info("Saving paycheck configurations for user: {}", user.getEmail());
 
-        // Option: Delete existing configs for this user first to replace them all
-        paycheckConfigRepository.deleteByUser(user);
-        logger.debug("Deleted existing paycheck configurations for user: {}", user.getEmail());
-
+        // Last entry wins if the client sends the same account twice
+        Map<String, SelectedPaycheckDto> selectedByAccount = new LinkedHashMap<>();
         for (SelectedPaycheckDto selectedDto : selectedPaychecks) {
-            UserPaycheckConfig config = new UserPaycheckConfig();
-            config.setUser(user);
-            config.setAccountId(selectedDto.getAccountId());
-            config.setName(selectedDto.getName());
-            config.setWithdrawalPercentage(selectedDto.getWithdrawalPercentage());
-            paycheckConfigRepository.save(config);
-            logger.debug("Saved paycheck config: AccountId={}, Name='{}', Percentage={} for user {}",
-                    selectedDto.getAccountId(), selectedDto.getName(), selectedDto.getWithdrawalPercentage(), user.getEmail());
+            selectedByAccount.put(selectedDto.getAccountId(), selectedDto);
+        }
+
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        List<Long> deletes = new ArrayList<>();
+        Map<String, UserPaycheckConfig> existingByAccount = new HashMap<>();
+        for (UserPaycheckConfig existing : paycheckConfigRepository.findAllByUser_Id(user.getId())) {
+            // Rows from before this diff could hold duplicates per account; keep one
+            if (!selectedByAccount.containsKey(existing.getAccountId())
+                    || existingByAccount.putIfAbsent(existing.getAccountId(), existing) != null) {
+                deletes.add(existing.getId());
+            }
+        }
+        for (SelectedPaycheckDto selectedDto : selectedByAccount.values()) {
+            UserPaycheckConfig existing = existingByAccount.get(selectedDto.getAccountId());
+            if (existing == null) {
+                inserts.add(new Object[]{user.getId(), selectedDto.getAccountId(), selectedDto.getName(), selectedDto.getWithdrawalPercentage()});
+            } else if (!Objects.equals(existing.getName(), selectedDto.getName())
+                    || existing.getWithdrawalPercentage().compareTo(selectedDto.getWithdrawalPercentage()) != 0) {
+                updates.add(new Object[]{selectedDto.getName(), selectedDto.getWithdrawalPercentage(), existing.getId()});
+            }
+        }
+
+        if (!deletes.isEmpty()) {
+            paycheckConfigRepository.deleteAllByIdInBatch(deletes);
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE user_paycheck_configs SET name = ?, withdrawal_percentage = ? WHERE id = ?", updates);
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO user_paycheck_configs (user_id, account_id, name, withdrawal_percentage) VALUES (?, ?, ?, ?)",
+                    inserts);
         }
 
         // Example: Update a flag on the User entity if this completes a step
         // user.setPaycheckSelectionCompleted(true);
         // userRepository.save(user);
 
-        logger.info("Successfully saved {} paycheck configurations for user: {}", selectedPaychecks.size(), user.getEmail());
+        logger.info("Saved paycheck configurations for user {}: {} inserted, {} updated, {} deleted, {} unchanged",
+                user.getEmail(), inserts.size(), updates.size(), deletes.size(),
+                selectedByAccount.size() - inserts.size() - updates.size());
+    }
+
+    // Content-based, so every node computes the same ETag from the same rows
+    private static String etagOf(List<PaycheckConfigDto> configs) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (PaycheckConfigDto config : configs) {
+                String line = config.getAccountId() + '\0' + config.getName() + '\0'
+                        + config.getWithdrawalPercentage().stripTrailingZeros().toPlainString() + '\n';
+                digest.update(line.getBytes(StandardCharsets.UTF_8));
+            }
+            return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
\ No newline at end of file
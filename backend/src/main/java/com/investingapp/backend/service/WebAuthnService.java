@@ -9,9 +9,11 @@ import com.investingapp.backend.model.User;
 import com.investingapp.backend.repository.PasskeyCredentialRepository;
 import com.investingapp.backend.repository.UserRepository;
 import com.investingapp.backend.security.jwt.JwtUtils;
+import com.investingapp.backend.security.services.UserDetailsImpl;
 import com.investingapp.backend.security.services.UserDetailsServiceImpl;
 import com.yubico.webauthn.*;
 import com.yubico.webauthn.data.*;
+import com.yubico.webauthn.exception.AssertionFailedException;
 import com.yubico.webauthn.exception.RegistrationFailedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,16 +24,24 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.util.Base64;
+import java.util.Optional;
 
 @Service
 public class WebAuthnService {
 
     private static final Logger logger = LoggerFactory.getLogger(WebAuthnService.class);
+    private static final byte CHALLENGE_FORMAT_VERSION = 1;
+
+    /** A registration between start and finish: the options sent to the client and the Plaid link to claim. */
+    public record PendingRegistration(PublicKeyCredentialCreationOptions options, String temporaryPlaidUserId) {}
     private final SecureRandom random = new SecureRandom();
 
     private final RelyingParty relyingParty;
@@ -41,6 +51,9 @@ public class WebAuthnService {
     private final UserDetailsServiceImpl userDetailsService;
     private final PlaidService plaidService;
     private final EncryptionService encryptionService;
+    private final RefreshTokenService refreshTokenService;
+    private final YubicoCredentialRepository credentialRepository;
+    private final PasskeyUsageWriteBehind passkeyUsageWriteBehind;
 
     @Autowired
     public WebAuthnService(RelyingParty relyingParty,
@@ -49,7 +62,10 @@ public class WebAuthnService {
                            JwtUtils jwtUtils,
                            UserDetailsServiceImpl userDetailsService,
                            PlaidService plaidService,
-                           EncryptionService encryptionService) {
+                           EncryptionService encryptionService,
+                           RefreshTokenService refreshTokenService,
+                           YubicoCredentialRepository credentialRepository,
+                           PasskeyUsageWriteBehind passkeyUsageWriteBehind) {
         this.relyingParty = relyingParty;
         this.userRepository = userRepository;
         this.passkeyCredentialRepository = passkeyCredentialRepository;
@@ -57,74 +73,80 @@ public class WebAuthnService {
         this.userDetailsService = userDetailsService;
         this.plaidService = plaidService;
         this.encryptionService = encryptionService;
+        this.refreshTokenService = refreshTokenService;
+        this.credentialRepository = credentialRepository;
+        this.passkeyUsageWriteBehind = passkeyUsageWriteBehind;
     }
 
-    @Transactional
-    public PublicKeyCredentialCreationOptions startRegistrationFlow(String email, String temporaryPlaidUserIdFromClient) {
+    /**
+     * Starts a passkey registration without writing anything. A new user's identity (email, freshly generated user
+     * handle) and the reference to their pending Plaid connection live only in the returned state, which the caller
+     * keeps in the ChallengeStore; finishRegistrationFlow persists them once the client has produced a credential.
+     *
+     * A passkey can only be added to an existing account by that account's own authenticated session, so for an
+     * email that is already registered this returns empty unless authenticatedUserId is its owner. That also keeps
+     * an existing user handle from being handed to anyone else.
+     */
+    @Transactional(readOnly = true)
+    public Optional<PendingRegistration> startRegistrationFlow(String email, String temporaryPlaidUserIdFromClient, Long authenticatedUserId) {
         logger.info("Starting passkey registration for email: {}, temporaryPlaidUserIdFromClient: {}", email, temporaryPlaidUserIdFromClient);
 
-        User user = userRepository.findByEmail(email).orElseGet(() -> {
-            logger.info("User with email {} not found, creating a new user.", email);
-            User newUser = new User(email); // Assumes User constructor takes email
-            byte[] handleBytes = new byte[16];
-            random.nextBytes(handleBytes);
-            newUser.setUserHandle(Base64.getUrlEncoder().withoutPadding().encodeToString(handleBytes));
-
-            // --- Link Plaid connection using PendingPlaidConnection ---
-            if (temporaryPlaidUserIdFromClient != null && !temporaryPlaidUserIdFromClient.isEmpty()) {
-                PendingPlaidConnection pendingConnection = plaidService.retrieveAndRemovePendingConnection(temporaryPlaidUserIdFromClient);
-                if (pendingConnection != null) {
-                    logger.info("Associating pending Plaid connection (Item ID: {}) with new user (Email: {}) during passkey registration start.",
-                                pendingConnection.getPlaidItemId(), newUser.getEmail());
-                    
-                    String rawPlaidAccessToken = pendingConnection.getPlaidAccessToken(); // Assumes this is raw/decrypted from PlaidService
-                    
-                    newUser.setPlaidAccessToken(encryptionService.encrypt(rawPlaidAccessToken)); // Encrypt for User entity
-                    newUser.setPlaidItemId(pendingConnection.getPlaidItemId());
-                    newUser.setPlaidLinked(true);
-                    logger.info("Plaid info linked to new user {}.", newUser.getEmail());
-                } else {
-                    logger.warn("No valid pending Plaid connection found for temporary ID: {} during passkey registration start for new user {}.",
-                                temporaryPlaidUserIdFromClient, newUser.getEmail());
-                }
-            }
-            return userRepository.save(newUser);
-        });
-
-        // Ensure existing users or newly created user has a user handle
-        if (user.getUserHandle() == null || user.getUserHandle().isEmpty()) {
-            byte[] handleBytes = new byte[16];
-            random.nextBytes(handleBytes);
-            user.setUserHandle(Base64.getUrlEncoder().withoutPadding().encodeToString(handleBytes));
-            user = userRepository.save(user); 
+        Optional<User> existingUser = userRepository.findByEmail(email);
+        if (existingUser.isPresent() && !isOwner(existingUser.get(), authenticatedUserId)) {
+            logger.warn("Passkey registration for existing account {} refused: request not authenticated as its owner.", email);
+            return Optional.empty();
         }
 
+        // Existing users keep their handle; anyone else gets a provisional one that becomes theirs on finish
+        String userHandle = existingUser
+                .map(User::getUserHandle)
+                .filter(handle -> !handle.isEmpty())
+                .orElseGet(() -> {
+                    byte[] handleBytes = new byte[16];
+                    random.nextBytes(handleBytes);
+                    return Base64.getUrlEncoder().withoutPadding().encodeToString(handleBytes);
+                });
+
         UserIdentity userIdentity = UserIdentity.builder()
-                .name(user.getEmail())
-                .displayName(user.getEmail())
-                .id(PasskeyCredential.base64UrlToByteArray(user.getUserHandle()))
+                .name(email)
+                .displayName(email)
+                .id(PasskeyCredential.base64UrlToByteArray(userHandle))
                 .build();
 
-        StartRegistrationOptions optionsToPassToRp = StartRegistrationOptions.builder()
+        return Optional.of(new PendingRegistration(relyingParty.startRegistration(startRegistrationOptions(userIdentity)),
+                temporaryPlaidUserIdFromClient));
+    }
+
+    // The account may only gain a passkey from a session authenticated as that same account
+    private static boolean isOwner(User user, Long authenticatedUserId) {
+        return authenticatedUserId != null && authenticatedUserId.equals(user.getId());
+    }
+
+    private static StartRegistrationOptions startRegistrationOptions(UserIdentity userIdentity) {
+        return StartRegistrationOptions.builder()
             .user(userIdentity)
             .authenticatorSelection(AuthenticatorSelectionCriteria.builder()
                 .residentKey(ResidentKeyRequirement.PREFERRED)
                 .userVerification(UserVerificationRequirement.PREFERRED)
                 .build())
             .build();
-        
-        return relyingParty.startRegistration(optionsToPassToRp);
     }
 
+    /**
+     * Verifies the new credential and, in one transaction, creates the user if needed, claims their pending Plaid
+     * connection and stores the credential. Any failure rolls all of it back.
+     *
+     * The ownership check is repeated here, not only in startRegistrationFlow: the account may have been created
+     * by another registration for the same email after this one started.
+     */
     @Transactional
-    public RegistrationFinishResponse finishRegistrationFlow(String userEmail, JsonNode registrationJsonFromClient, String temporaryUserId, PublicKeyCredentialCreationOptions requestOptionsFromServer) {
+    public RegistrationFinishResponse finishRegistrationFlow(String userEmail, JsonNode registrationJsonFromClient,
+                                                             PendingRegistration pendingRegistration, Long authenticatedUserId) {
         logger.info("Finishing passkey registration for email: {}", userEmail);
+        PublicKeyCredentialCreationOptions requestOptionsFromServer = pendingRegistration.options();
         RegistrationResult registrationResult; 
 
         try {
-            User user = userRepository.findByEmail(userEmail)
-                    .orElseThrow(() -> new RegistrationFailedException(new IllegalArgumentException("User not found during finish flow: " + userEmail)));
-
             PublicKeyCredential<AuthenticatorAttestationResponse, ClientRegistrationExtensionOutputs> pkc =
                 PublicKeyCredential.parseRegistrationResponseJson(registrationJsonFromClient.toString());
 
@@ -140,6 +162,20 @@ public class WebAuthnService {
             // No need to check an "isSuccess()" method on registrationResult for this primary success determination.
             // The fact that no exception was thrown is the key indicator from the Yubico library.
 
+            String userHandle = PasskeyCredential.byteArrayToBase64Url(requestOptionsFromServer.getUser().getId());
+            User user = userRepository.findByEmail(userEmail).orElse(null);
+            if (user == null) {
+                user = createUser(userEmail, userHandle, pendingRegistration.temporaryPlaidUserId());
+            } else if (!isOwner(user, authenticatedUserId)) {
+                throw new RegistrationFailedException(new IllegalArgumentException(
+                        "An account already exists for " + userEmail + ". Sign in to add a passkey to it."));
+            } else if (user.getUserHandle() == null || user.getUserHandle().isEmpty()) {
+                user.setUserHandle(userHandle);
+            } else if (!user.getUserHandle().equals(userHandle)) {
+                // Another registration for this account finished first and gave it a different handle
+                throw new RegistrationFailedException(new IllegalArgumentException("User handle changed during registration for: " + userEmail));
+            }
+
             PasskeyCredential newCredential = new PasskeyCredential(
                     user,
                     PasskeyCredential.byteArrayToBase64Url(registrationResult.getKeyId().getId()),
@@ -150,34 +186,207 @@ public class WebAuthnService {
             newCredential.setFriendlyName("Passkey - " + LocalDateTime.now().withNano(0));
             newCredential.setLastUsedDate(LocalDateTime.now());
             passkeyCredentialRepository.save(newCredential);
+            credentialRepository.invalidate(registrationResult.getKeyId().getId());
             logger.info("Passkey successfully registered for user {} with credential ID: {}", userEmail, newCredential.getExternalId());
 
             // --- User is registered with passkey, now generate JWT ---
-            UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
+            UserDetails userDetails = UserDetailsImpl.build(user);
             Authentication authentication = new UsernamePasswordAuthenticationToken(
                     userDetails, null, userDetails.getAuthorities());
             SecurityContextHolder.getContext().setAuthentication(authentication);
             logger.info("User {} authenticated via passkey registration and set in SecurityContext.", userEmail);
 
-            String jwt = jwtUtils.generateJwtToken(authentication);
+            RefreshTokenService.IssuedTokens tokens = refreshTokenService.issue((UserDetailsImpl) userDetails);
             logger.info("JWT generated for user {}.", userEmail);
 
             return new RegistrationFinishResponse(
                     true, // Success is true because no exception was thrown and we saved the credential
                     "Passkey registration successful. User logged in.",
-                    jwt,
+                    tokens.accessToken(),
                     user.getId(),
-                    user.getEmail()
+                    user.getEmail(),
+                    tokens.refreshToken()
             );
 
         } catch (RegistrationFailedException | IOException e) {
-            // This catches exceptions from relyingParty.finishRegistration(), JSON parsing, or user not found.
+            // This catches exceptions from relyingParty.finishRegistration(), JSON parsing, an existing account
+            // not owned by the caller, or a user handle mismatch.
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             logger.error("Passkey registration failed for user {}: {}", userEmail, e.getMessage(), e);
             // Optionally, you could provide more specific error messages based on the exception type if needed.
             return new RegistrationFinishResponse(false, "Passkey registration failed: " + e.getMessage(), null, null, userEmail);
         } catch (Exception e) { // Catch any other unexpected errors during the process
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             logger.error("Unexpected error during passkey registration finish for user {}: {}", userEmail, e.getMessage(), e);
             return new RegistrationFinishResponse(false, "An unexpected error occurred during registration.", null, null, userEmail);
         }
     }
-}
\ No newline at end of file
+
+    // Only new users claim the pending Plaid connection, as before; it is consumed in the caller's transaction
+    private User createUser(String email, String userHandle, String temporaryPlaidUserId) {
+        logger.info("User with email {} not found, creating a new user.", email);
+        User newUser = new User(email);
+        newUser.setUserHandle(userHandle);
+
+        // --- Link Plaid connection using PendingPlaidConnection ---
+        if (temporaryPlaidUserId != null && !temporaryPlaidUserId.isEmpty()) {
+            PendingPlaidConnection pendingConnection = plaidService.retrieveAndRemovePendingConnection(temporaryPlaidUserId);
+            if (pendingConnection != null) {
+                logger.info("Associating pending Plaid connection (Item ID: {}) with new user (Email: {}) during passkey registration.",
+                            pendingConnection.getPlaidItemId(), newUser.getEmail());
+
+                String rawPlaidAccessToken = pendingConnection.getPlaidAccessToken(); // Raw/decrypted from PlaidService
+
+                newUser.setPlaidAccessToken(encryptionService.encrypt(rawPlaidAccessToken)); // Encrypt for User entity
+                newUser.setPlaidItemId(pendingConnection.getPlaidItemId());
+                newUser.setPlaidLinked(true);
+                logger.info("Plaid info linked to new user {}.", newUser.getEmail());
+            } else {
+                logger.warn("No valid pending Plaid connection found for temporary ID: {} during passkey registration for new user {}.",
+                            temporaryPlaidUserId, newUser.getEmail());
+            }
+        }
+        return userRepository.save(newUser);
+    }
+
+    /**
+     * Starts a passkey sign-in. With an email the client is offered that user's credentials; without one, any
+     * discoverable credential for this relying party.
+     */
+    public AssertionRequest startAssertionFlow(String email) {
+        logger.info("Starting passkey sign-in for email: {}", email != null ? email : "(discoverable credential)");
+        return relyingParty.startAssertion(startAssertionOptions(email));
+    }
+
+    private static StartAssertionOptions startAssertionOptions(String email) {
+        return StartAssertionOptions.builder()
+                .username(Optional.ofNullable(email))
+                .userVerification(UserVerificationRequirement.PREFERRED)
+                .build();
+    }
+
+    /**
+     * Verifies a signed assertion against the pending request and issues tokens. Returns empty if verification
+     * fails. The credential's new signature count and last-used date go to the write-behind buffer, so the only
+     * write made here is the refresh token that starts the session.
+     */
+    public Optional<RefreshTokenService.IssuedTokens> finishAssertionFlow(AssertionRequest assertionRequest, JsonNode assertionJsonFromClient) {
+        try {
+            PublicKeyCredential<AuthenticatorAssertionResponse, ClientAssertionExtensionOutputs> pkc =
+                PublicKeyCredential.parseAssertionResponseJson(assertionJsonFromClient.toString());
+
+            AssertionResult result = relyingParty.finishAssertion(FinishAssertionOptions.builder()
+                    .request(assertionRequest)
+                    .response(pkc)
+                    .build());
+            if (!result.isSuccess()) {
+                logger.warn("Passkey sign-in not successful for user {}.", result.getUsername());
+                return Optional.empty();
+            }
+
+            ByteArray credentialId = result.getCredential().getCredentialId();
+            credentialRepository.updateSignatureCount(credentialId, result.getSignatureCount());
+            passkeyUsageWriteBehind.record(PasskeyCredential.byteArrayToBase64Url(credentialId),
+                    result.getSignatureCount(), LocalDateTime.now());
+
+            UserDetailsImpl userDetails = (UserDetailsImpl) userDetailsService.loadUserByUsername(result.getUsername());
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                    userDetails, null, userDetails.getAuthorities()));
+            logger.info("User {} signed in with passkey.", result.getUsername());
+            return Optional.of(refreshTokenService.issue(userDetails));
+
+        } catch (AssertionFailedException | IOException e) {
+            logger.warn("Passkey sign-in failed: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    // Pending ceremonies are stored as just the state that differs between them (see ChallengeStore): the random
+    // challenge and the user it was issued for. Everything else follows from the RelyingParty configuration and the
+    // start*Options above, so restoring runs the same start call again and swaps the stored challenge back in.
+    // Layout: format version, then length-prefixed fields (challenge, user handle / username, Plaid reference).
+
+    /**
+     * Compact form of a pending registration: the challenge, the (possibly provisional) user handle and the
+     * temporary Plaid user ID, if any. The email is the caller's store key.
+     */
+    public byte[] encodeRegistration(PendingRegistration pendingRegistration) {
+        PublicKeyCredentialCreationOptions options = pendingRegistration.options();
+        byte[] challenge = options.getChallenge().getBytes();
+        byte[] userHandle = options.getUser().getId().getBytes();
+        byte[] temporaryPlaidUserId = pendingRegistration.temporaryPlaidUserId() != null
+                ? pendingRegistration.temporaryPlaidUserId().getBytes(StandardCharsets.UTF_8)
+                : new byte[0];
+        ByteBuffer out = ByteBuffer.allocate(5 + challenge.length + userHandle.length + temporaryPlaidUserId.length);
+        out.put(CHALLENGE_FORMAT_VERSION);
+        putByteLengthPrefixed(out, challenge);
+        putByteLengthPrefixed(out, userHandle);
+        out.putShort((short) temporaryPlaidUserId.length);
+        out.put(temporaryPlaidUserId);
+        return out.array();
+    }
+
+    public PendingRegistration restoreRegistration(String email, byte[] encoded) {
+        ByteBuffer in = readChallengeFormat(encoded);
+        ByteArray challenge = new ByteArray(getByteLengthPrefixed(in));
+        UserIdentity userIdentity = UserIdentity.builder()
+                .name(email)
+                .displayName(email)
+                .id(new ByteArray(getByteLengthPrefixed(in)))
+                .build();
+        byte[] temporaryPlaidUserId = new byte[Short.toUnsignedInt(in.getShort())];
+        in.get(temporaryPlaidUserId);
+        PublicKeyCredentialCreationOptions options = relyingParty.startRegistration(startRegistrationOptions(userIdentity)).toBuilder()
+                .challenge(challenge)
+                .build();
+        return new PendingRegistration(options,
+                temporaryPlaidUserId.length > 0 ? new String(temporaryPlaidUserId, StandardCharsets.UTF_8) : null);
+    }
+
+    /** Compact form of an assertion request: the challenge and the username it was started for, if any. */
+    public byte[] encodeAssertion(AssertionRequest assertionRequest) {
+        byte[] challenge = assertionRequest.getPublicKeyCredentialRequestOptions().getChallenge().getBytes();
+        byte[] username = assertionRequest.getUsername().map(name -> name.getBytes(StandardCharsets.UTF_8)).orElse(new byte[0]);
+        ByteBuffer out = ByteBuffer.allocate(4 + challenge.length + username.length);
+        out.put(CHALLENGE_FORMAT_VERSION);
+        putByteLengthPrefixed(out, challenge);
+        out.putShort((short) username.length);
+        out.put(username);
+        return out.array();
+    }
+
+    public AssertionRequest restoreAssertion(byte[] encoded) {
+        ByteBuffer in = readChallengeFormat(encoded);
+        ByteArray challenge = new ByteArray(getByteLengthPrefixed(in));
+        byte[] username = new byte[Short.toUnsignedInt(in.getShort())];
+        in.get(username);
+        AssertionRequest restarted = relyingParty.startAssertion(
+                startAssertionOptions(username.length > 0 ? new String(username, StandardCharsets.UTF_8) : null));
+        return restarted.toBuilder()
+                .publicKeyCredentialRequestOptions(restarted.getPublicKeyCredentialRequestOptions().toBuilder()
+                        .challenge(challenge)
+                        .build())
+                .build();
+    }
+
+    private static ByteBuffer readChallengeFormat(byte[] encoded) {
+        ByteBuffer in = ByteBuffer.wrap(encoded);
+        byte version = in.get();
+        if (version != CHALLENGE_FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unknown pending challenge format " + version);
+        }
+        return in;
+    }
+
+    // Challenges and user handles are at most 64 bytes, so one unsigned length byte is enough
+    private static void putByteLengthPrefixed(ByteBuffer out, byte[] bytes) {
+        out.put((byte) bytes.length);
+        out.put(bytes);
+    }
+
+    private static byte[] getByteLengthPrefixed(ByteBuffer in) {
+        byte[] bytes = new byte[Byte.toUnsignedInt(in.get())];
+        in.get(bytes);
+        return bytes;
+    }
+}
@@ -1,6 +1,9 @@
 // src/main/java/com/investingapp/backend/service/YubicoCredentialRepository.java
 package com.investingapp.backend.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.investingapp.backend.dto.StoredCredentialDto;
 import com.investingapp.backend.model.PasskeyCredential;
 import com.investingapp.backend.model.User;
 import com.investingapp.backend.repository.PasskeyCredentialRepository;
@@ -9,8 +12,16 @@ import com.yubico.webauthn.CredentialRepository;
 import com.yubico.webauthn.RegisteredCredential;
 import com.yubico.webauthn.data.ByteArray;
 import com.yubico.webauthn.data.PublicKeyCredentialDescriptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -20,22 +31,43 @@ public class YubicoCredentialRepository implements CredentialRepository {
 
     private final UserRepository userRepository;
     private final PasskeyCredentialRepository passkeyCredentialRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${webauthn.credential-cache.ttl-minutes:10}")
+    private long cacheTtlMinutes;
+
+    @Value("${webauthn.credential-cache.maximum-size:10000}")
+    private long cacheMaximumSize;
+
+    // By Base64URL credential ID. Unknown IDs aren't cached, so a credential registered later is found at once.
+    private Cache<String, RegisteredCredential> credentialCache;
 
     @Autowired
-    public YubicoCredentialRepository(UserRepository userRepository, PasskeyCredentialRepository passkeyCredentialRepository) {
+    public YubicoCredentialRepository(UserRepository userRepository,
+                                      PasskeyCredentialRepository passkeyCredentialRepository,
+                                      MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
         this.passkeyCredentialRepository = passkeyCredentialRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        credentialCache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(cacheTtlMinutes))
+                .maximumSize(cacheMaximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, credentialCache, "webauthn.credentials");
     }
 
     @Override
     public Set<PublicKeyCredentialDescriptor> getCredentialIdsForUsername(String username) {
-        return userRepository.findByEmail(username).map(user ->
-            passkeyCredentialRepository.findAllByUser(user).stream()
-                .map(cred -> PublicKeyCredentialDescriptor.builder()
-                    .id(PasskeyCredential.base64UrlToByteArray(cred.getExternalId()))
+        return passkeyCredentialRepository.findExternalIdsByUserEmail(username).stream()
+                .map(externalId -> PublicKeyCredentialDescriptor.builder()
+                    .id(PasskeyCredential.base64UrlToByteArray(externalId))
                     .build())
-                .collect(Collectors.toSet())
-        ).orElse(Set.of());
+                .collect(Collectors.toSet());
     }
 
     @Override
@@ -52,27 +84,57 @@ public class YubicoCredentialRepository implements CredentialRepository {
 
     @Override
     public Optional<RegisteredCredential> lookup(ByteArray credentialId, ByteArray userHandle) {
-        String externalId = PasskeyCredential.byteArrayToBase64Url(credentialId);
-        return passkeyCredentialRepository.findByExternalId(externalId)
-            .filter(cred -> cred.getUser().getUserHandle().equals(PasskeyCredential.byteArrayToBase64Url(userHandle)))
-            .map(cred -> RegisteredCredential.builder()
-                .credentialId(credentialId)
-                .userHandle(userHandle)
-                .publicKeyCose(PasskeyCredential.base64UrlToByteArray(cred.getPublicKeyCose()))
-                .signatureCount(cred.getSignatureCount())
-                .build());
+        return findCredential(credentialId)
+            .filter(cred -> cred.getUserHandle().equals(userHandle));
     }
 
     @Override
     public Set<RegisteredCredential> lookupAll(ByteArray credentialId) {
+        // externalId is unique, so there is at most one
+        return findCredential(credentialId).map(Set::of).orElse(Set.of());
+    }
+
+    /**
+     * Drops a cached credential, e.g. once it's been registered or deleted. Invalidates once now and again after
+     * commit, so a lookup that reloaded the old row mid-transaction can't stay cached.
+     */
+    public void invalidate(ByteArray credentialId) {
         String externalId = PasskeyCredential.byteArrayToBase64Url(credentialId);
-        return passkeyCredentialRepository.findByExternalId(externalId).stream()
-            .map(cred -> RegisteredCredential.builder()
-                .credentialId(credentialId)
-                .userHandle(PasskeyCredential.base64UrlToByteArray(cred.getUser().getUserHandle()))
-                .publicKeyCose(PasskeyCredential.base64UrlToByteArray(cred.getPublicKeyCose()))
-                .signatureCount(cred.getSignatureCount())
-                .build()
-            ).collect(Collectors.toSet());
+        credentialCache.invalidate(externalId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    credentialCache.invalidate(externalId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Records a new signature count after a successful assertion. The cached entry is updated in place rather than
+     * dropped, so the next assertion is checked against the new count even before it has been written to the database.
+     */
+    public void updateSignatureCount(ByteArray credentialId, long signatureCount) {
+        credentialCache.asMap().computeIfPresent(PasskeyCredential.byteArrayToBase64Url(credentialId),
+                (externalId, cred) -> cred.getSignatureCount() >= signatureCount
+                        ? cred
+                        : cred.toBuilder().signatureCount(signatureCount).build());
+    }
+
+    private Optional<RegisteredCredential> findCredential(ByteArray credentialId) {
+        return Optional.ofNullable(credentialCache.get(PasskeyCredential.byteArrayToBase64Url(credentialId),
+                externalId -> passkeyCredentialRepository.findStoredCredentialByExternalId(externalId)
+                        .map(YubicoCredentialRepository::toRegisteredCredential)
+                        .orElse(null)));
+    }
+
+    private static RegisteredCredential toRegisteredCredential(StoredCredentialDto cred) {
+        return RegisteredCredential.builder()
+            .credentialId(PasskeyCredential.base64UrlToByteArray(cred.getExternalId()))
+            .userHandle(PasskeyCredential.base64UrlToByteArray(cred.getUserHandle()))
+            .publicKeyCose(PasskeyCredential.base64UrlToByteArray(cred.getPublicKeyCose()))
+            .signatureCount(cred.getSignatureCount())
+            .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,77 @@
+// src/test/java/com/investingapp/backend/config/AdaptiveConcurrencyLimiterTest.java
+package com.investingapp.backend.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveConcurrencyLimiterTest {
+
+	@Test
+	void asyncWaiterIsHandedTheReleasedSlot() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 10, 60_000);
+		assertThat(limiter.acquireAsync()).isCompleted();
+
+		CompletableFuture<Void> waiter = limiter.acquireAsync();
+		assertThat(waiter).isNotDone();
+		assertThat(limiter.getQueued()).isEqualTo(1);
+
+		limiter.release(TimeUnit.MILLISECONDS.toNanos(50), false);
+		assertThat(waiter).isCompleted();
+		assertThat(limiter.getInFlight()).isEqualTo(1);
+		assertThat(limiter.getQueued()).isZero();
+	}
+
+	@Test
+	void waitersAreServedInOrder() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 10, 60_000);
+		limiter.acquireAsync();
+		CompletableFuture<Void> first = limiter.acquireAsync();
+		CompletableFuture<Void> second = limiter.acquireAsync();
+
+		limiter.cancel();
+		assertThat(first).isCompleted();
+		assertThat(second).isNotDone();
+	}
+
+	@Test
+	void fullQueueRejectsAtOnce() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 1, 60_000);
+		limiter.acquireAsync();
+		limiter.acquireAsync();
+
+		assertThatThrownBy(() -> limiter.acquireAsync().join()).hasCauseInstanceOf(RejectedExecutionException.class);
+	}
+
+	@Test
+	void waiterTimesOutWithoutTakingASlot() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 10, 20);
+		limiter.acquireAsync();
+
+		CompletableFuture<Void> waiter = limiter.acquireAsync();
+		assertThatThrownBy(waiter::join).hasCauseInstanceOf(TimeoutException.class);
+		assertThat(limiter.getQueued()).isZero();
+
+		limiter.cancel();
+		assertThat(limiter.getInFlight()).isZero();
+	}
+
+	@Test
+	void cancelledWaiterPassesItsTurnOn() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 10, 60_000);
+		limiter.acquireAsync();
+		CompletableFuture<Void> abandoned = limiter.acquireAsync();
+		CompletableFuture<Void> next = limiter.acquireAsync();
+
+		abandoned.cancel(false);
+		limiter.cancel();
+		assertThat(next).isCompleted();
+		assertThat(limiter.getInFlight()).isEqualTo(1);
+	}
+}
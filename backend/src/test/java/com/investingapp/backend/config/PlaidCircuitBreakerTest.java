@@ -0,0 +1,111 @@
+// src/test/java/com/investingapp/backend/config/PlaidCircuitBreakerTest.java
+package com.investingapp.backend.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlaidCircuitBreakerTest {
+
+	private static final int WINDOW = 4;
+
+	@Test
+	void opensOnceTheWindowReachesTheFailureRate() {
+		PlaidCircuitBreaker breaker = new PlaidCircuitBreaker(WINDOW, 0.5, 60);
+
+		breaker.onSuccess(breaker.tryAcquire());
+		breaker.onSuccess(breaker.tryAcquire());
+		breaker.onFailure(breaker.tryAcquire());
+		assertThat(breaker.getState()).isEqualTo(PlaidCircuitBreaker.State.CLOSED);
+
+		breaker.onFailure(breaker.tryAcquire());
+		assertThat(breaker.getState()).isEqualTo(PlaidCircuitBreaker.State.OPEN);
+		assertThat(breaker.tryAcquire()).isEqualTo(PlaidCircuitBreaker.REJECTED);
+	}
+
+	@Test
+	void halfOpenAdmitsASingleProbeAndClosesOnItsSuccess() {
+		PlaidCircuitBreaker breaker = openBreaker(0);
+
+		long probe = breaker.tryAcquire();
+		assertThat(probe).isNotEqualTo(PlaidCircuitBreaker.REJECTED);
+		assertThat(breaker.getState()).isEqualTo(PlaidCircuitBreaker.State.HALF_OPEN);
+		assertThat(breaker.tryAcquire()).isEqualTo(PlaidCircuitBreaker.REJECTED);
+
+		breaker.onSuccess(probe);
+		assertThat(breaker.getState()).isEqualTo(PlaidCircuitBreaker.State.CLOSED);
+	}
+
+	@Test
+	void failedProbeReopens() {
+		PlaidCircuitBreaker breaker = openBreaker(60);
+		// Open duration not over yet
+		assertThat(breaker.tryAcquire()).isEqualTo(PlaidCircuitBreaker.REJECTED);
+
+		PlaidCircuitBreaker expired = openBreaker(0);
+		expired.onFailure(expired.tryAcquire());
+		assertThat(expired.getState()).isEqualTo(PlaidCircuitBreaker.State.OPEN);
+	}
+
+	@Test
+	void cancelledProbeLetsTheNextCallProbe() {
+		PlaidCircuitBreaker breaker = openBreaker(0);
+
+		breaker.cancel(breaker.tryAcquire());
+		long probe = breaker.tryAcquire();
+		assertThat(probe).isNotEqualTo(PlaidCircuitBreaker.REJECTED);
+
+		breaker.onSuccess(probe);
+		assertThat(breaker.getState()).isEqualTo(PlaidCircuitBreaker.State.CLOSED);
+	}
+
+	@Test
+	void callAdmittedBeforeOpeningCannotDecideTheHalfOpenState() {
+		PlaidCircuitBreaker breaker = new PlaidCircuitBreaker(WINDOW, 0.5, 0);
+		long slowSuccess = breaker.tryAcquire();
+		long slowFailure = breaker.tryAcquire();
+		for (int i = 0; i < WINDOW; i++) {
+			breaker.onFailure(breaker.tryAcquire());
+		}
+		long probe = breaker.tryAcquire();
+		assertThat(breaker.getState()).isEqualTo(PlaidCircuitBreaker.State.HALF_OPEN);
+
+		// Calls from the CLOSED period finishing now neither close nor re-open the breaker...
+		breaker.onSuccess(slowSuccess);
+		assertThat(breaker.getState()).isEqualTo(PlaidCircuitBreaker.State.HALF_OPEN);
+		breaker.onFailure(slowFailure);
+		assertThat(breaker.getState()).isEqualTo(PlaidCircuitBreaker.State.HALF_OPEN);
+		// ...and don't free the probe slot
+		assertThat(breaker.tryAcquire()).isEqualTo(PlaidCircuitBreaker.REJECTED);
+
+		breaker.onFailure(probe);
+		assertThat(breaker.getState()).isEqualTo(PlaidCircuitBreaker.State.OPEN);
+	}
+
+	@Test
+	void staleOutcomesAreNotCountedInTheNewClosedWindow() {
+		PlaidCircuitBreaker breaker = new PlaidCircuitBreaker(WINDOW, 0.5, 0);
+		long[] slow = new long[WINDOW];
+		for (int i = 0; i < WINDOW; i++) {
+			slow[i] = breaker.tryAcquire();
+		}
+		for (int i = 0; i < WINDOW; i++) {
+			breaker.onFailure(breaker.tryAcquire());
+		}
+		breaker.onSuccess(breaker.tryAcquire());
+		assertThat(breaker.getState()).isEqualTo(PlaidCircuitBreaker.State.CLOSED);
+
+		for (long ticket : slow) {
+			breaker.onFailure(ticket);
+		}
+		assertThat(breaker.getState()).isEqualTo(PlaidCircuitBreaker.State.CLOSED);
+	}
+
+	private static PlaidCircuitBreaker openBreaker(long openDurationSeconds) {
+		PlaidCircuitBreaker breaker = new PlaidCircuitBreaker(WINDOW, 0.5, openDurationSeconds);
+		for (int i = 0; i < WINDOW; i++) {
+			breaker.onFailure(breaker.tryAcquire());
+		}
+		return breaker;
+	}
+}
@@ -0,0 +1,62 @@
+// src/test/java/com/investingapp/backend/repository/UserRepositoryTest.java
+package com.investingapp.backend.repository;
+
+import com.investingapp.backend.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The orphan cleanup queries must only match abandoned passkey registrations, never real accounts
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class UserRepositoryTest {
+
+	private static final LocalDateTime CUTOFF = LocalDateTime.of(2026, 10, 17, 0, 0);
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Test
+	void orphanCleanupKeepsPasswordAndPlaidLinkedUsers() {
+		User abandoned = persistUser("abandoned@example.com", "handle-abandoned", false, CUTOFF.minusDays(30));
+		User passwordUser = persistUser("password@example.com", null, false, CUTOFF.minusDays(30));
+		User plaidLinked = persistUser("linked@example.com", "handle-linked", true, CUTOFF.minusDays(30));
+		User recent = persistUser("recent@example.com", "handle-recent", false, CUTOFF.plusDays(1));
+
+		List<Long> ids = userRepository.findOrphanedUserIds(0L, CUTOFF, 100);
+		assertThat(ids).containsExactly(abandoned.getId());
+
+		// The DELETE re-checks everything itself, so even a stale page naming real accounts can't remove them
+		int deleted = userRepository.deleteOrphanedUsers(
+				List.of(abandoned.getId(), passwordUser.getId(), plaidLinked.getId(), recent.getId()), CUTOFF);
+		entityManager.clear();
+
+		assertThat(deleted).isEqualTo(1);
+		assertThat(userRepository.findById(abandoned.getId())).isEmpty();
+		assertThat(userRepository.findById(passwordUser.getId())).isPresent();
+		assertThat(userRepository.findById(plaidLinked.getId())).isPresent();
+		assertThat(userRepository.findById(recent.getId())).isPresent();
+	}
+
+	private User persistUser(String email, String userHandle, boolean plaidLinked, LocalDateTime createDate) {
+		User user = new User(email);
+		user.setUserHandle(userHandle);
+		user.setPlaidLinked(plaidLinked);
+		user = entityManager.persistAndFlush(user);
+		// create_date is set by @CreationTimestamp, so backdate it directly
+		entityManager.getEntityManager()
+				.createNativeQuery("UPDATE users SET create_date = :createDate WHERE id = :id")
+				.setParameter("createDate", createDate)
+				.setParameter("id", user.getId())
+				.executeUpdate();
+		return user;
+	}
+}
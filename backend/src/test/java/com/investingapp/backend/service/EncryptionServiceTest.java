@@ -0,0 +1,82 @@
+// src/test/java/com/investingapp/backend/service/EncryptionServiceTest.java
+package com.investingapp.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Values written under every format and key version still in the database must keep decrypting
+class EncryptionServiceTest {
+
+	private static final String KEY_1 = "0123456789abcdef";
+	private static final String KEY_2 = "fedcba9876543210";
+	private static final String KEY_3 = "abcdef0123456789";
+	private static final String TOKEN = "access-sandbox-1234-5678";
+
+	@Test
+	void legacyEcbValueStillDecrypts() throws Exception {
+		// Written the way the service did before versioning: Cipher.getInstance("AES") under encryption.secret-key
+		Cipher legacy = Cipher.getInstance("AES");
+		legacy.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(KEY_1.getBytes(StandardCharsets.UTF_8), "AES"));
+		String stored = Base64.getEncoder().encodeToString(legacy.doFinal(TOKEN.getBytes(StandardCharsets.UTF_8)));
+
+		EncryptionService service = new EncryptionService(Map.of(1, KEY_1, 2, KEY_2), 2);
+
+		assertThat(service.decrypt(stored)).isEqualTo(TOKEN);
+		assertThat(service.needsReEncryption(stored)).isTrue();
+	}
+
+	@Test
+	void valueUnderAnOlderKeyDecryptsAfterRotation() {
+		String underKey2 = new EncryptionService(Map.of(1, KEY_1, 2, KEY_2), 2).encrypt(TOKEN);
+		assertThat(underKey2).startsWith("v2:");
+
+		EncryptionService rotated = new EncryptionService(Map.of(1, KEY_1, 2, KEY_2, 3, KEY_3), 3);
+
+		assertThat(rotated.decrypt(underKey2)).isEqualTo(TOKEN);
+		assertThat(rotated.needsReEncryption(underKey2)).isTrue();
+	}
+
+	@Test
+	void currentVersionRoundTripsAndNeedsNoReEncryption() {
+		EncryptionService service = new EncryptionService(Map.of(1, KEY_1, 2, KEY_2), 2);
+
+		String encrypted = service.encrypt(TOKEN);
+
+		assertThat(encrypted).startsWith("v2:");
+		assertThat(service.decrypt(encrypted)).isEqualTo(TOKEN);
+		assertThat(service.needsReEncryption(encrypted)).isFalse();
+		// Random IV per value
+		assertThat(service.encrypt(TOKEN)).isNotEqualTo(encrypted);
+	}
+
+	@Test
+	void nullNeedsNoReEncryption() {
+		assertThat(new EncryptionService(Map.of(1, KEY_1), 1).needsReEncryption(null)).isFalse();
+	}
+
+	@Test
+	void unknownKeyVersionFails() {
+		String underKey2 = new EncryptionService(Map.of(1, KEY_1, 2, KEY_2), 2).encrypt(TOKEN);
+
+		assertThatThrownBy(() -> new EncryptionService(Map.of(1, KEY_1), 1).decrypt(underKey2))
+				.hasRootCauseInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	void tamperedValueFails() {
+		EncryptionService service = new EncryptionService(Map.of(1, KEY_1), 1);
+		byte[] payload = Base64.getDecoder().decode(service.encrypt(TOKEN).substring("v1:".length()));
+		payload[payload.length - 1] ^= 1;
+
+		assertThatThrownBy(() -> service.decrypt("v1:" + Base64.getEncoder().encodeToString(payload)))
+				.isInstanceOf(RuntimeException.class);
+	}
+}
@@ -0,0 +1,105 @@
+// src/test/java/com/investingapp/backend/service/JdbcChallengeStoreTest.java
+package com.investingapp.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Single-use takes against the real statements, on H2 in MySQL mode for ON DUPLICATE KEY UPDATE
+@DataJpaTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:challenges;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"webauthn.challenge-store.type=jdbc"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(JdbcChallengeStore.class)
+class JdbcChallengeStoreTest {
+
+	private static final String KEY = "reg:user@example.com";
+
+	@Autowired
+	private JdbcChallengeStore challengeStore;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void secondTakeOfTheSameKeyGetsNothing() {
+		challengeStore.put(KEY, bytes("challenge"));
+
+		assertThat(challengeStore.take(KEY)).hasValueSatisfying(value -> assertThat(value).isEqualTo(bytes("challenge")));
+		assertThat(challengeStore.take(KEY)).isEmpty();
+	}
+
+	@Test
+	void takeRacingAnotherTakeGetsNothing() {
+		challengeStore.put(KEY, bytes("challenge"));
+		AtomicReference<Optional<byte[]>> racer = new AtomicReference<>();
+		// The other take runs to completion between this take's SELECT and its DELETE
+		JdbcChallengeStore store = new JdbcChallengeStore(afterRead(() -> racer.set(challengeStore.take(KEY))), 300);
+
+		assertThat(store.take(KEY)).isEmpty();
+		assertThat(racer.get()).hasValueSatisfying(value -> assertThat(value).isEqualTo(bytes("challenge")));
+	}
+
+	@Test
+	void takeNeverConsumesANewerPut() {
+		challengeStore.put(KEY, bytes("old"));
+		// A new /start for the same key replaces the row between this take's SELECT and its DELETE
+		JdbcChallengeStore store = new JdbcChallengeStore(afterRead(() -> challengeStore.put(KEY, bytes("new"))), 300);
+
+		assertThat(store.take(KEY)).isEmpty();
+		assertThat(challengeStore.take(KEY)).hasValueSatisfying(value -> assertThat(value).isEqualTo(bytes("new")));
+	}
+
+	@Test
+	void expiredRowIsNeverReturnedAndGetsPurged() {
+		challengeStore.put(KEY, bytes("challenge"));
+		jdbcTemplate.update("UPDATE webauthn_challenges SET expire_date = DATEADD('SECOND', -1, CURRENT_TIMESTAMP) " +
+				"WHERE challenge_key = ?", KEY);
+
+		assertThat(challengeStore.take(KEY)).isEmpty();
+
+		challengeStore.purgeExpired();
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM webauthn_challenges", Integer.class)).isZero();
+	}
+
+	@Test
+	void putReplacesAPendingValue() {
+		challengeStore.put(KEY, bytes("first"));
+		challengeStore.put(KEY, bytes("second"));
+
+		assertThat(challengeStore.take(KEY)).hasValueSatisfying(value -> assertThat(value).isEqualTo(bytes("second")));
+		assertThat(challengeStore.take(KEY)).isEmpty();
+	}
+
+	// A JdbcTemplate on the same connection that runs the given action right after each SELECT
+	private JdbcTemplate afterRead(Runnable action) {
+		return new JdbcTemplate(jdbcTemplate.getDataSource()) {
+			@Override
+			public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+				List<T> rows = super.query(sql, rowMapper, args);
+				action.run();
+				return rows;
+			}
+		};
+	}
+
+	private static byte[] bytes(String value) {
+		return value.getBytes(StandardCharsets.UTF_8);
+	}
+}
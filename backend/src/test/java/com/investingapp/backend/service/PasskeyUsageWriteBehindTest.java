@@ -0,0 +1,119 @@
+// src/test/java/com/investingapp/backend/service/PasskeyUsageWriteBehindTest.java
+package com.investingapp.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Buffered usages are coalesced per credential and survive a failed flush
+class PasskeyUsageWriteBehindTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 17, 12, 0);
+
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final List<List<Object[]>> flushedBatches = new ArrayList<>();
+	private PasskeyUsageWriteBehind writeBehind;
+
+	@BeforeEach
+	void setUp() {
+		EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+		when(entityManagerFactory.getCache()).thenReturn(mock(Cache.class));
+		writeBehind = new PasskeyUsageWriteBehind(jdbcTemplate, mock(NamedParameterJdbcTemplate.class),
+				new SimpleMeterRegistry(), entityManagerFactory);
+		// Long interval so only the test triggers flushes
+		ReflectionTestUtils.setField(writeBehind, "flushIntervalMs", 3_600_000L);
+		ReflectionTestUtils.setField(writeBehind, "batchSize", 500);
+		writeBehind.init();
+	}
+
+	@AfterEach
+	void tearDown() {
+		writeBehind.shutdown();
+	}
+
+	@Test
+	void usagesOfOneCredentialCoalesceToHighestCountAndLatestDate() {
+		succeedFlushes();
+		writeBehind.record("cred-a", 7, NOW);
+		// Out of order: a lower count with a later date and a higher count with an earlier one
+		writeBehind.record("cred-a", 5, NOW.plusMinutes(2));
+		writeBehind.record("cred-a", 9, NOW.minusMinutes(1));
+		writeBehind.record("cred-b", 1, NOW);
+
+		writeBehind.flush();
+
+		assertThat(flushedBatches).hasSize(1);
+		assertThat(flushedBatches.get(0)).hasSize(2);
+		assertThat(row(flushedBatches.get(0), "cred-a"))
+				.containsExactly(9L, Timestamp.valueOf(NOW.plusMinutes(2)), "cred-a");
+	}
+
+	@Test
+	void failedRowsAreRequeuedAndMergedWithNewerUsage() {
+		when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(), any()))
+				.thenThrow(new TransientDataAccessResourceException("connection lost"))
+				.thenAnswer(invocation -> {
+					flushedBatches.add(new ArrayList<>(invocation.<Collection<Object[]>>getArgument(1)));
+					return new int[0][];
+				});
+		writeBehind.record("cred-a", 4, NOW);
+		writeBehind.flush();
+		assertThat(flushedBatches).isEmpty();
+
+		writeBehind.record("cred-a", 3, NOW.plusMinutes(1));
+		writeBehind.flush();
+
+		assertThat(flushedBatches).hasSize(1);
+		assertThat(flushedBatches.get(0)).singleElement()
+				.satisfies(row -> assertThat(row).containsExactly(4L, Timestamp.valueOf(NOW.plusMinutes(1)), "cred-a"));
+
+		// Nothing left once the retry went through
+		writeBehind.flush();
+		assertThat(flushedBatches).hasSize(1);
+	}
+
+	@Test
+	void recordDuringShutdownLeavesTheUsageForTheFinalFlush() {
+		succeedFlushes();
+		ReflectionTestUtils.setField(writeBehind, "batchSize", 1);
+		writeBehind.shutdown();
+
+		assertThatCode(() -> writeBehind.record("cred-a", 2, NOW)).doesNotThrowAnyException();
+
+		writeBehind.flush();
+		assertThat(flushedBatches).singleElement()
+				.satisfies(batch -> assertThat(row(batch, "cred-a")).containsExactly(2L, Timestamp.valueOf(NOW), "cred-a"));
+	}
+
+	private void succeedFlushes() {
+		when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(), any())).thenAnswer(invocation -> {
+			flushedBatches.add(new ArrayList<>(invocation.<Collection<Object[]>>getArgument(1)));
+			return new int[0][];
+		});
+	}
+
+	private static Object[] row(List<Object[]> batch, String externalId) {
+		return batch.stream().filter(row -> externalId.equals(row[2])).findFirst().orElseThrow();
+	}
+}
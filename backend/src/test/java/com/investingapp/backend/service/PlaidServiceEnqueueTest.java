@@ -0,0 +1,181 @@
+// src/test/java/com/investingapp/backend/service/PlaidServiceEnqueueTest.java
+package com.investingapp.backend.service;
+
+import com.investingapp.backend.config.PlaidCircuitBreaker;
+import com.investingapp.backend.config.PlaidResilienceInterceptor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import okio.Timeout;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Retries and queueing of enqueued Plaid calls, which run on OkHttp dispatcher threads in production
+class PlaidServiceEnqueueTest {
+
+	private static final String RETRYABLE = "/accounts/get";
+	private static final String NOT_RETRYABLE = "/item/public_token/exchange";
+
+	private SimpleMeterRegistry meterRegistry;
+	private PlaidService plaidService;
+	private final BlockingQueue<Attempt> attempts = new LinkedBlockingQueue<>();
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		// Concurrency limit fixed at 1, so a second call has to queue
+		PlaidResilienceInterceptor resilience = new PlaidResilienceInterceptor(meterRegistry,
+				new PlaidCircuitBreaker(20, 0.5, 30), 1, 1, 1, 10, 5_000, 3, 1, 10);
+		plaidService = new PlaidService();
+		ReflectionTestUtils.setField(plaidService, "plaidResilience", resilience);
+	}
+
+	@Test
+	void rateLimitedCallIsRetriedAfterRetryAfter() throws Exception {
+		CompletableFuture<String> result = plaidService.enqueue(new ScriptedCall(RETRYABLE), "test", "failed");
+
+		nextAttempt().respond(error(429, "0"));
+		nextAttempt().respond(Response.success("ok"));
+
+		assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("ok");
+		assertThat(meterRegistry.counter("plaid.client.retries", "endpoint", RETRYABLE, "cause", "rate_limit").count())
+				.isEqualTo(1);
+	}
+
+	@Test
+	void ioFailureIsRetriedUntilAttemptsRunOut() {
+		CompletableFuture<String> result = plaidService.enqueue(new ScriptedCall(RETRYABLE), "test", "failed");
+
+		for (int i = 0; i < 3; i++) {
+			nextAttempt().fail(new IOException("connection reset"));
+		}
+
+		assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IOException.class);
+		assertThat(attempts).isEmpty();
+	}
+
+	@Test
+	void nonIdempotentCallIsNotRetried() throws Exception {
+		CompletableFuture<String> result = plaidService.enqueue(new ScriptedCall(NOT_RETRYABLE), "test", "failed");
+
+		nextAttempt().respond(error(500, null));
+
+		assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IOException.class);
+		assertThat(attempts.poll(100, TimeUnit.MILLISECONDS)).isNull();
+	}
+
+	@Test
+	void callOverTheLimitWaitsForASlotInsteadOfFailing() throws Exception {
+		CompletableFuture<String> first = plaidService.enqueue(new ScriptedCall(RETRYABLE), "test", "failed");
+		Attempt firstAttempt = nextAttempt();
+
+		CompletableFuture<String> second = plaidService.enqueue(new ScriptedCall(RETRYABLE), "test", "failed");
+		assertThat(attempts.poll(100, TimeUnit.MILLISECONDS)).isNull();
+		assertThat(second).isNotDone();
+		assertThat(meterRegistry.get("plaid.client.queue.depth").tag("endpoint", RETRYABLE).gauge().value()).isEqualTo(1);
+
+		firstAttempt.respond(Response.success("first"));
+		nextAttempt().respond(Response.success("second"));
+
+		assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+		assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("second");
+	}
+
+	private Attempt nextAttempt() {
+		try {
+			Attempt attempt = attempts.poll(5, TimeUnit.SECONDS);
+			assertThat(attempt).as("expected another attempt").isNotNull();
+			return attempt;
+		} catch (InterruptedException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static Response<String> error(int code, String retryAfter) {
+		okhttp3.Response.Builder raw = new okhttp3.Response.Builder()
+				.code(code)
+				.message("error")
+				.protocol(Protocol.HTTP_1_1)
+				.request(new Request.Builder().url("https://sandbox.plaid.com" + RETRYABLE).build());
+		if (retryAfter != null) {
+			raw.header("Retry-After", retryAfter);
+		}
+		return Response.error(ResponseBody.create("{}", MediaType.get("application/json")), raw.build());
+	}
+
+	// One enqueued attempt, answered by the test
+	private record Attempt(ScriptedCall call, Callback<String> callback) {
+		void respond(Response<String> response) {
+			callback.onResponse(call, response);
+		}
+
+		void fail(IOException failure) {
+			callback.onFailure(call, failure);
+		}
+	}
+
+	private class ScriptedCall implements Call<String> {
+
+		private final String endpoint;
+		private volatile boolean canceled;
+
+		ScriptedCall(String endpoint) {
+			this.endpoint = endpoint;
+		}
+
+		@Override
+		public void enqueue(Callback<String> callback) {
+			attempts.add(new Attempt(this, callback));
+		}
+
+		@Override
+		public Response<String> execute() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean isExecuted() {
+			return false;
+		}
+
+		@Override
+		public void cancel() {
+			canceled = true;
+		}
+
+		@Override
+		public boolean isCanceled() {
+			return canceled;
+		}
+
+		@Override
+		public Call<String> clone() {
+			return new ScriptedCall(endpoint);
+		}
+
+		@Override
+		public Request request() {
+			return new Request.Builder().url("https://sandbox.plaid.com" + endpoint).build();
+		}
+
+		@Override
+		public Timeout timeout() {
+			return Timeout.NONE;
+		}
+	}
+}
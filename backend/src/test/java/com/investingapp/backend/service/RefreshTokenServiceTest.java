@@ -0,0 +1,122 @@
+// src/test/java/com/investingapp/backend/service/RefreshTokenServiceTest.java
+package com.investingapp.backend.service;
+
+import com.investingapp.backend.model.RefreshToken;
+import com.investingapp.backend.model.User;
+import com.investingapp.backend.repository.RefreshTokenRepository;
+import com.investingapp.backend.security.jwt.JwtUtils;
+import com.investingapp.backend.security.jwt.TokenRevocationService;
+import com.investingapp.backend.security.services.UserDetailsImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Rotation, reuse detection and expiry of refresh tokens against the real queries
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"jwt.secret=refresh-token-service-test-secret-0123456789abcdef"})
+@Import({RefreshTokenService.class, JwtUtils.class, TokenRevocationService.class,
+		RefreshTokenServiceTest.MeterRegistryConfig.class})
+class RefreshTokenServiceTest {
+
+	@Autowired
+	private RefreshTokenService refreshTokenService;
+
+	@Autowired
+	private RefreshTokenRepository refreshTokenRepository;
+
+	@Autowired
+	private TokenRevocationService tokenRevocationService;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	private UserDetailsImpl principal;
+
+	@BeforeEach
+	void setUp() {
+		principal = UserDetailsImpl.build(entityManager.persistAndFlush(new User("refresh@example.com")));
+	}
+
+	@Test
+	void tokenRotatesOnlyOnce() {
+		String refreshToken = refreshTokenService.issue(principal).refreshToken();
+
+		Optional<RefreshTokenService.IssuedTokens> rotated = refreshTokenService.rotate(refreshToken);
+		entityManager.clear();
+
+		assertThat(rotated).isPresent();
+		assertThat(rotated.get().refreshToken()).isNotEqualTo(refreshToken);
+		assertThat(rotated.get().principal().getId()).isEqualTo(principal.getId());
+		assertThat(refreshTokenService.rotate(refreshToken)).isEmpty();
+	}
+
+	@Test
+	void reusingARotatedTokenRevokesTheFamily() {
+		RefreshTokenService.IssuedTokens first = refreshTokenService.issue(principal);
+		String stolen = first.refreshToken();
+		String legitimate = refreshTokenService.rotate(stolen).orElseThrow().refreshToken();
+		entityManager.clear();
+
+		// The thief replays the old token: nothing is issued, and the legitimate holder's newer token dies too
+		assertThat(refreshTokenService.rotate(stolen)).isEmpty();
+		entityManager.clear();
+		assertThat(refreshTokenService.rotate(legitimate)).isEmpty();
+
+		List<RefreshToken> family = refreshTokenRepository.findAll();
+		assertThat(family).hasSize(2).allSatisfy(token -> assertThat(token.getRevokedDate()).isNotNull());
+		// Access tokens issued from the family recently enough to still be valid are revoked as well
+		assertThat(family).allSatisfy(token -> assertThat(tokenRevocationService.isRevoked(token.getAccessJti())).isTrue());
+	}
+
+	@Test
+	void otherFamiliesSurviveAReuse() {
+		String stolen = refreshTokenService.issue(principal).refreshToken();
+		String otherDevice = refreshTokenService.issue(principal).refreshToken();
+		refreshTokenService.rotate(stolen);
+		entityManager.clear();
+
+		refreshTokenService.rotate(stolen);
+		entityManager.clear();
+
+		assertThat(refreshTokenService.rotate(otherDevice)).isPresent();
+	}
+
+	@Test
+	void expiredTokenReturnsEmptyWithoutRotating() {
+		String refreshToken = refreshTokenService.issue(principal).refreshToken();
+		RefreshToken stored = refreshTokenRepository.findAll().get(0);
+		stored.setExpireDate(LocalDateTime.now().minusMinutes(1));
+		entityManager.persistAndFlush(stored);
+		entityManager.clear();
+
+		assertThat(refreshTokenService.rotate(refreshToken)).isEmpty();
+		assertThat(refreshTokenRepository.findAll()).hasSize(1)
+				.allSatisfy(token -> assertThat(token.getRevokedDate()).isNull());
+	}
+
+	@Test
+	void unknownTokenReturnsEmpty() {
+		assertThat(refreshTokenService.rotate("not-a-token")).isEmpty();
+	}
+
+	@TestConfiguration
+	static class MeterRegistryConfig {
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+	}
+}
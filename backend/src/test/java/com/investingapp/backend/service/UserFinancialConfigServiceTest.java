@@ -0,0 +1,213 @@
+// src/test/java/com/investingapp/backend/service/UserFinancialConfigServiceTest.java
+package com.investingapp.backend.service;
+
+import com.investingapp.backend.dto.PaycheckConfigDto;
+import com.investingapp.backend.dto.SelectedPaycheckDto;
+import com.investingapp.backend.model.User;
+import com.investingapp.backend.model.UserPaycheckConfig;
+import com.investingapp.backend.repository.UserPaycheckConfigRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Compares database round trips of the old delete-all-then-save-each approach with the diff-based save
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({UserFinancialConfigService.class, UserFinancialConfigServiceTest.StatementCountingConfig.class})
+class UserFinancialConfigServiceTest {
+
+	private static final int PAYCHECKS = 10;
+
+	@Autowired
+	private UserFinancialConfigService service;
+
+	@Autowired
+	private UserPaycheckConfigRepository repository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private StatementCounter statementCounter;
+
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		user = entityManager.persistAndFlush(new User("paychecks@example.com"));
+	}
+
+	@Test
+	void resubmittingOneChangeTakesFewerStatementsThanReplacingEverything() {
+		List<SelectedPaycheckDto> initial = paychecks(PAYCHECKS);
+		service.saveUserPaycheckConfigurations(user, initial);
+		entityManager.flush();
+		entityManager.clear();
+
+		// One percentage changed, one account dropped, one added
+		List<SelectedPaycheckDto> resubmitted = paychecks(PAYCHECKS);
+		resubmitted.get(0).setWithdrawalPercentage(new BigDecimal("0.2500"));
+		resubmitted.remove(PAYCHECKS - 1);
+		resubmitted.add(paycheck("acct-new", "New job", "0.0500"));
+
+		int before = count(() -> replaceAll(resubmitted));
+		int beforeRows = repository.findAllByUser_Id(user.getId()).size();
+
+		// Reset to the initial selection, then apply the same change through the service
+		replaceAll(initial);
+		entityManager.flush();
+		entityManager.clear();
+		int after = count(() -> service.saveUserPaycheckConfigurations(user, resubmitted));
+
+		assertThat(after).isLessThanOrEqualTo(4); // select, delete, update batch, insert batch
+		assertThat(before).isGreaterThan(2 * PAYCHECKS);
+
+		Map<String, BigDecimal> saved = repository.findAllByUser_Id(user.getId()).stream()
+				.collect(Collectors.toMap(UserPaycheckConfig::getAccountId, UserPaycheckConfig::getWithdrawalPercentage));
+		assertThat(saved).hasSize(beforeRows);
+		assertThat(saved).doesNotContainKey("acct-" + (PAYCHECKS - 1));
+		assertThat(saved.get("acct-0")).isEqualByComparingTo("0.25");
+		assertThat(saved.get("acct-new")).isEqualByComparingTo("0.05");
+	}
+
+	@Test
+	void unchangedSelectionOnlyReads() {
+		service.saveUserPaycheckConfigurations(user, paychecks(PAYCHECKS));
+		entityManager.flush();
+		entityManager.clear();
+
+		int statements = count(() -> service.saveUserPaycheckConfigurations(user, paychecks(PAYCHECKS)));
+
+		assertThat(statements).isEqualTo(1);
+		assertThat(repository.findAllByUser_Id(user.getId())).hasSize(PAYCHECKS);
+	}
+
+	@Test
+	void etagFollowsTheStoredRows() {
+		service.saveUserPaycheckConfigurations(user, paychecks(2));
+		entityManager.flush();
+		entityManager.clear();
+		UserFinancialConfigService.PaycheckConfigs first = service.getPaycheckConfigurations(user.getId());
+		assertThat(service.getPaycheckConfigurations(user.getId()).etag()).isEqualTo(first.etag());
+		assertThat(first.configs()).extracting(PaycheckConfigDto::getAccountId).containsExactly("acct-0", "acct-1");
+
+		// A write that bypasses this service, as a save on another node would, shows up on the next read
+		UserPaycheckConfig stored = repository.findAllByUser_Id(user.getId()).get(1);
+		stored.setWithdrawalPercentage(new BigDecimal("0.3000"));
+		entityManager.flush();
+		entityManager.clear();
+
+		UserFinancialConfigService.PaycheckConfigs second = service.getPaycheckConfigurations(user.getId());
+		assertThat(second.etag()).isNotEqualTo(first.etag());
+		assertThat(second.configs().get(1).getWithdrawalPercentage()).isEqualByComparingTo("0.3");
+	}
+
+	// The implementation before the diff: derived deleteByUser (select, then one DELETE per row) and a save() per DTO
+	private void replaceAll(List<SelectedPaycheckDto> selectedPaychecks) {
+		repository.deleteByUser(user);
+		for (SelectedPaycheckDto selectedDto : selectedPaychecks) {
+			UserPaycheckConfig config = new UserPaycheckConfig();
+			config.setUser(user);
+			config.setAccountId(selectedDto.getAccountId());
+			config.setName(selectedDto.getName());
+			config.setWithdrawalPercentage(selectedDto.getWithdrawalPercentage());
+			repository.save(config);
+		}
+	}
+
+	private int count(Runnable action) {
+		statementCounter.reset();
+		action.run();
+		entityManager.flush(); // Include anything Hibernate would otherwise only write at commit
+		int statements = statementCounter.get();
+		entityManager.clear();
+		return statements;
+	}
+
+	private static List<SelectedPaycheckDto> paychecks(int count) {
+		List<SelectedPaycheckDto> paychecks = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			paychecks.add(paycheck("acct-" + i, "Paycheck " + i, "0.1000"));
+		}
+		return paychecks;
+	}
+
+	private static SelectedPaycheckDto paycheck(String accountId, String name, String percentage) {
+		SelectedPaycheckDto dto = new SelectedPaycheckDto();
+		dto.setAccountId(accountId);
+		dto.setName(name);
+		dto.setWithdrawalPercentage(new BigDecimal(percentage));
+		return dto;
+	}
+
+	// Counts statement executions (one per round trip; a JDBC batch counts once) on every connection
+	static class StatementCounter extends AtomicInteger {
+		void reset() {
+			set(0);
+		}
+	}
+
+	@TestConfiguration
+	static class StatementCountingConfig {
+
+		@Bean
+		StatementCounter statementCounter() {
+			return new StatementCounter();
+		}
+
+		@Bean
+		static BeanPostProcessor countingDataSourcePostProcessor(StatementCounter counter) {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					if (bean instanceof DataSource dataSource) {
+						return proxy(DataSource.class, dataSource, counter);
+					}
+					return bean;
+				}
+			};
+		}
+
+		@SuppressWarnings("unchecked")
+		private static <T> T proxy(Class<T> type, T target, StatementCounter counter) {
+			return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+				String name = method.getName();
+				if (Statement.class.isAssignableFrom(type) && name.startsWith("execute")) {
+					counter.incrementAndGet();
+				}
+				Object result;
+				try {
+					result = method.invoke(target, args);
+				} catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+				if (result instanceof Connection connection && method.getReturnType() == Connection.class) {
+					return proxy(Connection.class, connection, counter);
+				}
+				if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+					return proxy((Class<Statement>) method.getReturnType(), statement, counter);
+				}
+				return result;
+			});
+		}
+	}
+}